@@ -0,0 +1,127 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+
+/**
+ * AllocationCheck: regression check for the allocation-free engine tick.
+ * <p>
+ * Runs GameEngine.update for thousands of warm ticks with 1 and 3 balls on the first level,
+ * measuring every tick with com.sun.management.ThreadMXBean. Ticks that raise a GameEvents
+ * event (a brick hit, a buff caught, a life lost, a new level) may allocate; every other
+ * tick must allocate nothing. Exits with status 1 otherwise, so `mvn test` (exec:exec@allocation-check)
+ * fails on a regression.
+ */
+public class AllocationCheck {
+    private static final int WARMUP_TICKS = 20_000;
+    private static final int MEASURE_TICKS = 5_000;
+    private static final int PASSES = 3;
+    private static final double TICK = 1.0 / GameLoop.DEFAULT_TICK_RATE;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        boolean ok = check(1) & check(3);
+        System.out.println(ok ? "AllocationCheck: OK" : "AllocationCheck: FAILED");
+        if (!ok) System.exit(1);
+    }
+
+    /**
+     * Warm up, then measure; true if a pass had no allocating steady tick. The game is seeded,
+     * so an allocation in the engine shows up in every pass; a lone one (a JIT deoptimization
+     * putting scalar-replaced objects back on the heap) does not, hence a few passes.
+     */
+    private static boolean check(int ballCount) {
+        GameEngine engine = newEngine(ballCount);
+        for (int i = 0; i < WARMUP_TICKS; i++) {
+            tick(engine, ballCount);
+        }
+        for (int pass = 0; pass < PASSES; pass++) {
+            if (measure(ballCount)) return true;
+        }
+        return false;
+    }
+
+    /** One pass on a fresh level (same compiled code). */
+    private static boolean measure(int ballCount) {
+        GameEngine engine = newEngine(ballCount);
+        long tid = Thread.currentThread().threadId();
+        int[] events = new int[1];
+        engine.setEvents(new GameEvents() {
+            @Override
+            public void brickDamaged(int brick, int hitPoints) {
+                events[0]++;
+            }
+
+            @Override
+            public void scoreChanged(int delta) {
+                events[0]++;
+            }
+
+            @Override
+            public void livesChanged(int delta) {
+                events[0]++;
+            }
+
+            @Override
+            public void buffPickedUp(Buff.BuffType type) {
+                events[0]++;
+            }
+
+            @Override
+            public void levelChanged(int level) {
+                events[0]++;
+            }
+        });
+        int steadyTicks = 0;
+        int allocatingTicks = 0;
+        long worst = 0;
+        for (int i = 0; i < MEASURE_TICKS; i++) {
+            events[0] = 0;
+            long before = THREADS.getThreadAllocatedBytes(tid);
+            engine.update(TICK);
+            long bytes = THREADS.getThreadAllocatedBytes(tid) - before;
+
+            if (events[0] == 0) {
+                steadyTicks++;
+                if (bytes > 0) allocatingTicks++;
+                worst = Math.max(worst, bytes);
+            }
+            keepPlaying(engine, ballCount);
+        }
+
+        System.out.printf("balls=%d: %d steady ticks, %d allocated (worst %d bytes)%n",
+                ballCount, steadyTicks, allocatingTicks, worst);
+        if (steadyTicks == 0) {
+            System.err.println("balls=" + ballCount + ": no steady tick measured");
+            return false;
+        }
+        return allocatingTicks == 0;
+    }
+
+    private static GameEngine newEngine(int ballCount) {
+        GameEngine engine = new GameEngine(800, 600, 1234L);
+        engine.getBalls().get(0).launch(0.2, -1.0);
+        keepPlaying(engine, ballCount);
+        tick(engine, ballCount); // the first tick sizes the engine's scratch arrays
+        return engine;
+    }
+
+    private static void tick(GameEngine engine, int ballCount) {
+        engine.update(TICK);
+        keepPlaying(engine, ballCount);
+    }
+
+    /** Lives never run out; lost balls are relaunched or cloned back (outside the measured update). */
+    private static void keepPlaying(GameEngine engine, int ballCount) {
+        engine.setLives(99);
+        ArrayList<Ball> balls = engine.getBalls();
+        if (balls.isEmpty()) return;
+        Ball first = balls.get(0);
+        if (!first.isLaunched()) first.launch(0.2, -1.0);
+        for (int b = balls.size(); b < ballCount; b++) {
+            double angle = Math.toRadians(-150 + b * 20);
+            balls.add(first.cloneAt(first.getPosX(), first.getPosY(),
+                    300.0 * Math.cos(angle), 300.0 * Math.sin(angle)));
+        }
+    }
+}
@@ -0,0 +1,269 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * EngineBenchmark: repeatable micro-benchmarks for collision and the engine tick.
+ * <p>
+ * Each case is warmed up, then timed over several iterations; the output is ns/op (best and
+ * median iteration) and bytes allocated per op (from com.sun.management.ThreadMXBean). Cases
+ * are parameterized by brick count (50 / 500 / 5000) and ball count (1..6, plus 8 and 16 on
+ * an engine with a higher ball limit, parallel sweep against serial).
+ * <pre>
+ * mvn test-compile exec:exec@bench                      (all cases)
+ * mvn test-compile exec:exec@bench -Dbench.args=engine  (only cases whose name contains "engine")
+ * </pre>
+ * The same cases run under JMH through {@link #create} (see bench/jmh/EngineJmh.java).
+ */
+public class EngineBenchmark {
+    private static final int[] BRICK_COUNTS = {50, 500, 5000};
+    private static final int MAX_BALLS = 6;
+    private static final int[] PARALLEL_BALL_COUNTS = {8, 16};
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURE_ITERATIONS = 10;
+    private static final double TICK = 1.0 / GameLoop.DEFAULT_TICK_RATE;
+
+    // Same brick layout as LevelLoader / GameEngine
+    private static final int BRICK_WIDTH = 60;
+    private static final int BRICK_HEIGHT = 20;
+    private static final int PADDING = 5;
+    private static final int OFFSET_X = 35;
+    private static final int OFFSET_Y = 50;
+    private static final int COLUMNS = 50;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /** Results are folded in here so the JIT cannot drop the measured work. */
+    private static long sink;
+
+    /** One benchmark case: run {@code ops} operations. */
+    private interface Case {
+        void run(int ops);
+
+        /** Called before every iteration, not timed. */
+        default void reset() {}
+    }
+
+    public static void main(String[] args) {
+        String filter = args.length > 0 ? args[0] : "";
+        System.out.printf("%-44s %14s %14s %12s%n", "case", "best ns/op", "median ns/op", "bytes/op");
+
+        bench(filter, "sweptAABB", 2_000_000, sweptAABB());
+        for (int bricks : BRICK_COUNTS) {
+            bench(filter, "ball.update bricks=" + bricks, 200_000, ballUpdate(bricks, false));
+            bench(filter, "ball.update fire bricks=" + bricks, 200_000, ballUpdate(bricks, true));
+        }
+        for (int bricks : BRICK_COUNTS) {
+            for (int balls = 1; balls <= MAX_BALLS; balls++) {
+                bench(filter, "engine.update bricks=" + bricks + " balls=" + balls, 20_000,
+                        engineUpdate(bricks, balls, true));
+            }
+        }
+        // Enough balls in flight for the parallel sweep (GameEngine.PARALLEL_MIN_BALLS), and serial for comparison
+        for (int bricks : BRICK_COUNTS) {
+            for (int balls : PARALLEL_BALL_COUNTS) {
+                bench(filter, "engine.update parallel bricks=" + bricks + " balls=" + balls, 20_000,
+                        engineUpdate(bricks, balls, true));
+                bench(filter, "engine.update serial bricks=" + bricks + " balls=" + balls, 20_000,
+                        engineUpdate(bricks, balls, false));
+            }
+        }
+        bench(filter, "splitBall", 200_000, splitBall());
+
+        if (sink == 42) System.out.println(); // keep sink alive
+    }
+
+    /**
+     * A ready-to-run case for the JMH benchmarks, which cannot live in the default package
+     * and so cannot see Case: {@code name} is sweptAABB, ballUpdate, fireBallUpdate,
+     * engineUpdate, engineUpdateSerial (parallel sweep off) or splitBall; accept(ops) runs
+     * {@code ops} operations.
+     */
+    public static IntConsumer create(String name, int brickCount, int ballCount) {
+        Case benchCase = switch (name) {
+            case "sweptAABB" -> sweptAABB();
+            case "ballUpdate" -> ballUpdate(brickCount, false);
+            case "fireBallUpdate" -> ballUpdate(brickCount, true);
+            case "engineUpdate" -> engineUpdate(brickCount, ballCount, true);
+            case "engineUpdateSerial" -> engineUpdate(brickCount, ballCount, false);
+            case "splitBall" -> splitBall();
+            default -> throw new IllegalArgumentException("Unknown benchmark case: " + name);
+        };
+        benchCase.reset();
+        return benchCase::run;
+    }
+
+    private static void bench(String filter, String name, int ops, Case benchCase) {
+        if (!name.contains(filter)) return;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            benchCase.reset();
+            benchCase.run(ops);
+        }
+        long tid = Thread.currentThread().threadId();
+        long[] nanos = new long[MEASURE_ITERATIONS];
+        long bytes = 0;
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            benchCase.reset();
+            long allocated = THREADS.getThreadAllocatedBytes(tid);
+            long start = System.nanoTime();
+            benchCase.run(ops);
+            nanos[i] = System.nanoTime() - start;
+            bytes += THREADS.getThreadAllocatedBytes(tid) - allocated;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-44s %14.1f %14.1f %12.1f%n", name,
+                nanos[0] / (double) ops,
+                nanos[MEASURE_ITERATIONS / 2] / (double) ops,
+                bytes / (double) ops / MEASURE_ITERATIONS);
+    }
+
+    // --- Cases ---
+
+    /** Primitive sweptAABB overload, one moving box against a row of targets. */
+    private static Case sweptAABB() {
+        CollisionResult best = new CollisionResult();
+        return ops -> {
+            int hits = 0;
+            for (int i = 0; i < ops; i++) {
+                best.reset();
+                double tx = OFFSET_X + (i & 15) * (BRICK_WIDTH + PADDING);
+                if (CollisionUtils.sweptAABB(tx + 20, 120, 15, 15, tx, 100, BRICK_WIDTH, BRICK_HEIGHT,
+                        3.0, -4.0, best)) {
+                    hits++;
+                }
+            }
+            sink += hits;
+        };
+    }
+
+    /**
+     * One ball tick (grid query + Ball.update) inside a field of {@code brickCount} bricks.
+     * The ball is put back at the same spot every op, so every op does the same work.
+     * With {@code fire} the ball has Fire_Ball and pierces everything but Ice bricks.
+     */
+    private static Case ballUpdate(int brickCount, boolean fire) {
+        BrickField field = layout(brickCount);
+        BrickGrid grid = new BrickGrid(OFFSET_X, OFFSET_Y, BRICK_WIDTH + PADDING, BRICK_HEIGHT + PADDING);
+        grid.rebuild(field);
+        int[] candidates = new int[field.size()];
+        ArrayList<GameObject> none = new ArrayList<>();
+
+        // Start in the gap below the first row of the middle of the field, moving up-right
+        int rows = (brickCount + COLUMNS - 1) / COLUMNS;
+        double startX = OFFSET_X + Math.min(COLUMNS, brickCount) / 2 * (BRICK_WIDTH + PADDING);
+        double startY = OFFSET_Y + rows / 2 * (BRICK_HEIGHT + PADDING) + BRICK_HEIGHT + 1;
+        Ball ball = new Ball(startX, startY, 15, 15, 300.0, 0.6, -0.8, screenWidth(brickCount), screenHeight(brickCount));
+        ball.setLaunched(true);
+        if (fire) ball.getBuffs().put(Buff.BuffType.Fire_Ball, 5.0);
+        double[] start = new double[Ball.MOTION_SIZE];
+        ball.saveMotion(start);
+
+        return ops -> {
+            for (int i = 0; i < ops; i++) {
+                ball.restoreMotion(start);
+                double reach = ball.getSpeed() * TICK + 3.0;
+                int count = grid.query(ball.getPosX() - reach, ball.getPosY() - reach,
+                        ball.getPosX() + ball.getWidth() + reach, ball.getPosY() + ball.getHeight() + reach,
+                        candidates);
+                ball.update(TICK, none, field, candidates, count);
+                sink += count;
+            }
+        };
+    }
+
+    /**
+     * Full GameEngine.update with {@code ballCount} launched balls over {@code brickCount} bricks.
+     * The engine is rebuilt (untimed) before every iteration so bricks
+     * broken in one iteration do not make the next one cheaper. Its ball limit is raised to
+     * {@code ballCount} if needed; {@code parallel} = GameEngine.setParallelBalls.
+     */
+    private static Case engineUpdate(int brickCount, int ballCount, boolean parallel) {
+        return new Case() {
+            private GameEngine engine;
+
+            @Override
+            public void reset() {
+                engine = new GameEngine(screenWidth(brickCount), screenHeight(brickCount), 1234L,
+                        Math.max(GameEngine.DEFAULT_MAX_BALLS, ballCount));
+                engine.setParallelBalls(parallel);
+                engine.setBricks(layout(brickCount));
+                engine.getBalls().get(0).launch(0.2, -1.0);
+                addBalls(engine, ballCount);
+            }
+
+            @Override
+            public void run(int ops) {
+                ArrayList<Ball> balls = engine.getBalls();
+                for (int i = 0; i < ops; i++) {
+                    engine.setLives(99); // never run out of lives during a run
+                    engine.update(TICK);
+                    if (!balls.isEmpty() && !balls.get(0).isLaunched()) {
+                        balls.get(0).launch(0.2, -1.0);
+                    }
+                    // Lost balls come back, or after a few thousand ticks every case runs one ball
+                    if (balls.size() < ballCount) addBalls(engine, ballCount);
+                }
+                sink += engine.getScore();
+            }
+        };
+    }
+
+    /** Clone the first ball, fanned out upwards, until the engine has {@code ballCount} balls. */
+    private static void addBalls(GameEngine engine, int ballCount) {
+        ArrayList<Ball> balls = engine.getBalls();
+        if (balls.isEmpty()) return;
+        Ball first = balls.get(0);
+        for (int b = balls.size(); b < ballCount; b++) {
+            double angle = Math.toRadians(-150 + b * 20);
+            balls.add(first.cloneAt(first.getPosX(), first.getPosY(),
+                    300.0 * Math.cos(angle), 300.0 * Math.sin(angle)));
+        }
+    }
+
+    /** splitBall on a single launched ball (the two clones are dropped again after each op). */
+    private static Case splitBall() {
+        GameEngine engine = new GameEngine(800, 600, 1234L);
+        Ball origin = engine.getBalls().get(0);
+        origin.launch(0.2, -1.0);
+        return ops -> {
+            ArrayList<Ball> balls = engine.getBalls();
+            for (int i = 0; i < ops; i++) {
+                engine.splitBall(origin);
+                sink += balls.size();
+                while (balls.size() > 1) {
+                    balls.remove(balls.size() - 1);
+                }
+            }
+        };
+    }
+
+    // --- Level layout ---
+
+    /**
+     * {@code count} bricks in rows of COLUMNS on the LevelLoader grid; every 10th brick is Ice,
+     * every 7th Strong, the rest Normal.
+     */
+    static BrickField layout(int count) {
+        BrickField field = new BrickField(count);
+        for (int i = 0; i < count; i++) {
+            int col = i % COLUMNS;
+            int row = i / COLUMNS;
+            BrickField.BrickType type = i % 10 == 0 ? BrickField.BrickType.Ice
+                    : i % 7 == 0 ? BrickField.BrickType.Strong : BrickField.BrickType.Normal;
+            field.add(OFFSET_X + col * (BRICK_WIDTH + PADDING), OFFSET_Y + row * (BRICK_HEIGHT + PADDING),
+                    BRICK_WIDTH, BRICK_HEIGHT, type == BrickField.BrickType.Strong ? 2 : 1, type);
+        }
+        return field;
+    }
+
+    private static int screenWidth(int count) {
+        return Math.max(800, OFFSET_X * 2 + Math.min(count, COLUMNS) * (BRICK_WIDTH + PADDING));
+    }
+
+    private static int screenHeight(int count) {
+        int rows = (count + COLUMNS - 1) / COLUMNS;
+        return Math.max(600, OFFSET_Y + rows * (BRICK_HEIGHT + PADDING) + 300);
+    }
+}
@@ -0,0 +1,125 @@
+package jmh;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * EngineJmh: the EngineBenchmark cases under JMH, one op per invocation.
+ * <p>
+ * JMH refuses benchmark classes in the default package, and a named package cannot import
+ * the game classes, so each state asks EngineBenchmark.create for its case by name (one
+ * reflective call in the untimed setup). The states are rebuilt before every iteration, so
+ * bricks broken in one iteration do not make the next one cheaper.
+ * <pre>
+ * mvn test-compile exec:exec@jmh
+ * mvn test-compile exec:exec@jmh -Djmh.args="engineUpdate -p bricks=5000 -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class EngineJmh {
+
+    @State(Scope.Thread)
+    public static class Plain {
+        IntConsumer sweptAABB;
+        IntConsumer splitBall;
+
+        @Setup(Level.Iteration)
+        public void setUp() throws ReflectiveOperationException {
+            sweptAABB = create("sweptAABB", 0, 0);
+            splitBall = create("splitBall", 0, 0);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Bricks {
+        @Param({"50", "500", "5000"})
+        int bricks;
+
+        IntConsumer ballUpdate;
+        IntConsumer fireBallUpdate;
+
+        @Setup(Level.Iteration)
+        public void setUp() throws ReflectiveOperationException {
+            ballUpdate = create("ballUpdate", bricks, 1);
+            fireBallUpdate = create("fireBallUpdate", bricks, 1);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Engine {
+        @Param({"50", "500", "5000"})
+        int bricks;
+
+        @Param({"1", "2", "3", "4", "5", "6"})
+        int balls;
+
+        IntConsumer update;
+
+        @Setup(Level.Iteration)
+        public void setUp() throws ReflectiveOperationException {
+            update = create("engineUpdate", bricks, balls);
+        }
+    }
+
+    /** Above the default ball limit: 8+ balls in flight take the parallel sweep unless it is off. */
+    @State(Scope.Thread)
+    public static class ManyBalls {
+        @Param({"500", "5000"})
+        int bricks;
+
+        @Param({"8", "16"})
+        int balls;
+
+        @Param({"true", "false"})
+        boolean parallel;
+
+        IntConsumer update;
+
+        @Setup(Level.Iteration)
+        public void setUp() throws ReflectiveOperationException {
+            update = create(parallel ? "engineUpdate" : "engineUpdateSerial", bricks, balls);
+        }
+    }
+
+    @Benchmark
+    public void sweptAABB(Plain state) {
+        state.sweptAABB.accept(1);
+    }
+
+    @Benchmark
+    public void splitBall(Plain state) {
+        state.splitBall.accept(1);
+    }
+
+    @Benchmark
+    public void ballUpdate(Bricks state) {
+        state.ballUpdate.accept(1);
+    }
+
+    @Benchmark
+    public void fireBallUpdate(Bricks state) {
+        state.fireBallUpdate.accept(1);
+    }
+
+    @Benchmark
+    public void engineUpdate(Engine state) {
+        state.update.accept(1);
+    }
+
+    @Benchmark
+    public void engineUpdateManyBalls(ManyBalls state) {
+        state.update.accept(1);
+    }
+
+    private static IntConsumer create(String name, int bricks, int balls) throws ReflectiveOperationException {
+        return (IntConsumer) Class.forName("EngineBenchmark")
+                .getMethod("create", String.class, int.class, int.class)
+                .invoke(null, name, bricks, balls);
+    }
+}
@@ -0,0 +1,351 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * AutosaveJournal: continuous autosave as a full snapshot plus a journal of small events.
+ * <p>
+ * Each session keeps two files in saves/autosave/: session_&lt;id&gt;.sav, a BinarySave
+ * snapshot, and session_&lt;id&gt;.journal, the events since that snapshot. Events are brick
+ * damage, score and lives deltas, and buffs picked up, a few bytes each. The engine
+ * reports them through GameEvents and GameLoop calls tick() after every live step: the
+ * records of the tick are appended on SaveWriter's thread. Every COMPACT_INTERVAL_NANOS,
+ * once the journal passes COMPACT_BYTES, or when the level changes (every brick is new),
+ * the journal is compacted: a new snapshot is written atomically, then an empty journal
+ * that names it. A journal whose header names another snapshot is stale (a crash between
+ * the two writes) and is ignored on recovery, since the snapshot already contains it.
+ * recover() rebuilds the game from the newest snapshot plus its journal; a torn last
+ * record is dropped. When the game ends the session files are deleted.
+ * Simulation thread only (static recover/hasSession may run on any thread).
+ */
+public class AutosaveJournal implements GameEvents {
+    public static final Path DEFAULT_DIR = Paths.get("saves", "autosave");
+
+    private static final int MAGIC = 0x42544A4C; // "BTJL"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 2 + 8;
+    private static final String PREFIX = "session_";
+    private static final String SNAPSHOT_SUFFIX = BinarySave.EXTENSION;
+    private static final String JOURNAL_SUFFIX = ".journal";
+
+    private static final long COMPACT_INTERVAL_NANOS = 30_000_000_000L;
+    private static final long COMPACT_BYTES = 16 * 1024;
+
+    // Record tags; brick indices are ranks in the snapshot's (live-only) brick list
+    private static final int TAG_BRICK = 1;  // varint brick, varint hitPoints
+    private static final int TAG_SCORE = 2;  // zigzag varint delta
+    private static final int TAG_LIVES = 3;  // zigzag varint delta
+    private static final int TAG_BUFF = 4;   // byte BuffType ordinal
+
+    private static final Buff.BuffType[] BUFF_TYPES = Buff.BuffType.values();
+
+    private final Path dir;
+    private final Path snapshotFile;
+    private final Path journalFile;
+
+    private GameEngine engine;
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream(256);
+    private int[] snapshotIndex = new int[0]; // BrickField index -> rank at the last snapshot
+    private long snapshotId;
+    private long compactedAt;
+    private long journalBytes;
+    private boolean compactPending;
+    private boolean ended;
+    private boolean olderSessionsDeleted;
+
+    public AutosaveJournal(Path dir) {
+        this.dir = dir;
+        long session = System.currentTimeMillis();
+        this.snapshotFile = dir.resolve(PREFIX + session + SNAPSHOT_SUFFIX);
+        this.journalFile = dir.resolve(PREFIX + session + JOURNAL_SUFFIX);
+    }
+
+    /** Start journaling {@code engine} (listens to its events; a snapshot is taken next tick). */
+    public void attach(GameEngine engine) {
+        if (this.engine != null && this.engine != engine) {
+            this.engine.setEvents(null);
+        }
+        this.engine = engine;
+        engine.setEvents(this);
+        compactPending = true;
+    }
+
+    /** Stop listening to the engine. */
+    public void detach() {
+        if (engine != null) {
+            engine.setEvents(null);
+            engine = null;
+        }
+        pending.reset();
+    }
+
+    /**
+     * Called by GameLoop after each live step: append this tick's records, compact when due,
+     * drop the session when the game has ended.
+     */
+    public void tick() {
+        if (engine == null) return;
+        boolean over = engine.isGameOver() || engine.isGameWon();
+        if (over) {
+            if (!ended) {
+                ended = true;
+                pending.reset();
+                deleteSession();
+            }
+            return;
+        }
+        if (ended) { // restarted after game over
+            ended = false;
+            compactPending = true;
+        }
+        long now = System.nanoTime();
+        boolean changed = journalBytes > 0 || pending.size() > 0;
+        if (compactPending || journalBytes >= COMPACT_BYTES
+                || (changed && now - compactedAt >= COMPACT_INTERVAL_NANOS)) {
+            compact(now);
+        } else if (pending.size() > 0) {
+            ByteBuffer records = ByteBuffer.wrap(pending.toByteArray());
+            pending.reset();
+            journalBytes += records.remaining();
+            SaveWriter.runAsync(() -> SaveWriter.append(journalFile, records))
+                    .exceptionally(AutosaveJournal::logError);
+        }
+    }
+
+    /** Write a last snapshot and stop listening (e.g. the game panel is closed). */
+    public void close() {
+        if (engine != null && !ended) {
+            compact(System.nanoTime());
+        }
+        detach();
+    }
+
+    /** Snapshot now; the records still pending are in the snapshot, so they are dropped. */
+    private void compact(long now) {
+        pending.reset();
+        compactPending = false;
+        compactedAt = now;
+        journalBytes = 0;
+
+        snapshotId = Math.max(System.currentTimeMillis(), snapshotId + 1);
+        ByteBuffer snapshot = BinarySave.encode(engine, snapshotId);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putShort(VERSION).putLong(snapshotId).flip();
+
+        BrickField bricks = engine.getBricks();
+        if (snapshotIndex.length < bricks.size()) {
+            snapshotIndex = new int[bricks.size()];
+        }
+        int rank = 0;
+        for (int i = bricks.nextLive(0); i >= 0; i = bricks.nextLive(i + 1)) {
+            snapshotIndex[i] = rank++;
+        }
+
+        boolean deleteOlder = !olderSessionsDeleted;
+        olderSessionsDeleted = true;
+        SaveWriter.runAsync(() -> {
+            SaveWriter.writeAtomically(snapshotFile, snapshot);
+            SaveWriter.writeAtomically(journalFile, header);
+            if (deleteOlder) deleteOtherSessions();
+        }).exceptionally(AutosaveJournal::logError);
+    }
+
+    // ==================== GameEvents ====================
+
+    @Override
+    public void brickDamaged(int brick, int hitPoints) {
+        if (compactPending || brick >= snapshotIndex.length) return; // next snapshot has it
+        pending.write(TAG_BRICK);
+        writeVarInt(snapshotIndex[brick]);
+        writeVarInt(hitPoints);
+    }
+
+    @Override
+    public void scoreChanged(int delta) {
+        record(TAG_SCORE, delta);
+    }
+
+    @Override
+    public void livesChanged(int delta) {
+        record(TAG_LIVES, delta);
+    }
+
+    @Override
+    public void buffPickedUp(Buff.BuffType type) {
+        if (compactPending) return;
+        pending.write(TAG_BUFF);
+        pending.write(type.ordinal());
+    }
+
+    @Override
+    public void levelChanged(int level) {
+        // Every brick is new: a record cannot describe that, so take a snapshot instead
+        compactPending = true;
+    }
+
+    private void record(int tag, int delta) {
+        if (compactPending) return;
+        pending.write(tag);
+        writeVarInt((delta << 1) ^ (delta >> 31)); // zigzag
+    }
+
+    // Same encoding as ReplayRecorder.writeVarInt, straight into the in-memory buffer
+    private void writeVarInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            pending.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        pending.write(value);
+    }
+
+    // ==================== Recovery ====================
+
+    /**
+     * Whether {@code dir} holds an autosaved session to continue. Never blocks: the answer
+     * comes from SaveWriter's thread, after every write queued so far (a closing session may
+     * still be writing its last snapshot).
+     */
+    public static CompletableFuture<Boolean> hasSession(Path dir) {
+        CompletableFuture<Boolean> found = new CompletableFuture<>();
+        SaveWriter.runAsync(() -> found.complete(latestSnapshot(dir) != null));
+        return found;
+    }
+
+    /**
+     * Rebuild the latest autosaved session into {@code engine}: its snapshot, then every
+     * complete record of its journal.
+     *
+     * @return false if there is no session or its snapshot cannot be read
+     */
+    public static boolean recover(Path dir, GameEngine engine, int screenWidth, int screenHeight) {
+        SaveWriter.awaitPending();
+        Path snapshotFile = latestSnapshot(dir);
+        if (snapshotFile == null) return false;
+        long snapshotId;
+        try {
+            ByteBuffer snapshot = ByteBuffer.wrap(Files.readAllBytes(snapshotFile));
+            snapshotId = BinarySave.timestampOf(snapshot);
+            BinarySave.decode(snapshot, engine, screenWidth, screenHeight);
+        } catch (IOException | IndexOutOfBoundsException e) {
+            System.err.println("Could not read autosave " + snapshotFile + ": " + e.getMessage());
+            return false;
+        }
+
+        String name = snapshotFile.getFileName().toString();
+        Path journalFile = snapshotFile.resolveSibling(
+                name.substring(0, name.length() - SNAPSHOT_SUFFIX.length()) + JOURNAL_SUFFIX);
+        int records = 0;
+        if (Files.exists(journalFile)) {
+            try (InputStream file = Files.newInputStream(journalFile);
+                 DataInputStream in = new DataInputStream(new BufferedInputStream(file))) {
+                if (in.readInt() == MAGIC && in.readShort() == VERSION && in.readLong() == snapshotId) {
+                    records = replay(in, engine);
+                }
+            } catch (EOFException e) {
+                // empty or torn header: nothing after the snapshot
+            } catch (IOException e) {
+                System.err.println("Could not read autosave journal " + journalFile + ": " + e.getMessage());
+            }
+        }
+        engine.setBricks(engine.getBricks()); // re-index after the replayed destroys
+        System.out.println("Autosave recovered from " + snapshotFile + " + " + records + " journal records");
+        return true;
+    }
+
+    /** Apply records until the end of the journal (or a torn / unknown record). */
+    private static int replay(DataInputStream in, GameEngine engine) throws IOException {
+        BrickField bricks = engine.getBricks();
+        int records = 0;
+        try {
+            while (true) {
+                int tag = in.readUnsignedByte();
+                switch (tag) {
+                    case TAG_BRICK -> {
+                        int brick = ReplayRecorder.readVarInt(in);
+                        int hitPoints = ReplayRecorder.readVarInt(in);
+                        if (brick < bricks.size() && bricks.isLive(brick) && hitPoints < bricks.getHitPoints(brick)) {
+                            bricks.takeDamage(brick, bricks.getHitPoints(brick) - hitPoints);
+                        }
+                    }
+                    case TAG_SCORE -> engine.setScore(engine.getScore() + unzigzag(ReplayRecorder.readVarInt(in)));
+                    case TAG_LIVES -> engine.setLives(engine.getLives() + unzigzag(ReplayRecorder.readVarInt(in)));
+                    case TAG_BUFF -> {
+                        int type = in.readUnsignedByte();
+                        if (type < BUFF_TYPES.length) engine.applyBuff(BUFF_TYPES[type]);
+                    }
+                    default -> {
+                        System.err.println("Unknown autosave record " + tag + ", journal replay stopped");
+                        return records;
+                    }
+                }
+                records++;
+            }
+        } catch (EOFException e) {
+            return records; // end of journal, or a record torn by a crash
+        }
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /** Snapshot of the newest session in {@code dir}, or null. */
+    private static Path latestSnapshot(Path dir) {
+        if (!Files.isDirectory(dir)) return null;
+        Path latest = null;
+        long latestId = Long.MIN_VALUE;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, PREFIX + "*" + SNAPSHOT_SUFFIX)) {
+            for (Path file : files) {
+                long id = sessionId(file);
+                if (id > latestId) {
+                    latestId = id;
+                    latest = file;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not list autosaves in " + dir + ": " + e.getMessage());
+        }
+        return latest;
+    }
+
+    private static long sessionId(Path file) {
+        String name = file.getFileName().toString();
+        int end = name.indexOf('.', PREFIX.length());
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), end < 0 ? name.length() : end));
+        } catch (NumberFormatException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    /** Runs on the writer thread: only the current session is kept. */
+    private void deleteOtherSessions() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, PREFIX + "*")) {
+            for (Path file : files) {
+                if (!file.equals(snapshotFile) && !file.equals(journalFile)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private void deleteSession() {
+        SaveWriter.runAsync(() -> {
+            Files.deleteIfExists(snapshotFile);
+            Files.deleteIfExists(journalFile);
+        }).exceptionally(AutosaveJournal::logError);
+    }
+
+    private static Void logError(Throwable error) {
+        System.err.println("Autosave failed: " + error.getMessage());
+        return null;
+    }
+}
@@ -2,14 +2,15 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.awt.image.BufferedImage;
-import javax.imageio.ImageIO;
-import java.io.IOException;
 
 /**
  * Ball (Quả bóng) kế thừa từ MovableObject.
  * Quản lý chuyển động, va chạm, và buff.
  */
 public class Ball extends MovableObject {
+    public static final String NORMAL_TEXTURE = "/textures/Ball.png";
+    public static final String FIRE_TEXTURE = "/textures/FireBall.png";
+
     private BufferedImage texture;
     private BufferedImage normalTexture;
     private BufferedImage fireTexture;
@@ -17,6 +18,8 @@ public class Ball extends MovableObject {
     private double dirX;     // Hướng X
     private double dirY;     // Hướng Y
     public CollisionResult lastCollision = null;
+    private final CollisionResult bestHit = new CollisionResult(); // reused every sweep iteration
+    private final CollisionResult lastHit = new CollisionResult(); // backing object for lastCollision
     private HashMap<Buff.BuffType, Double> buffs;
     private boolean isLaunched = false;
     private int damage = 1;
@@ -26,6 +29,9 @@ public class Ball extends MovableObject {
     private final double baseWidth = 25;
     private final double baseHeight = 25;
 
+    /** Length of the array used by saveMotion/restoreMotion. */
+    public static final int MOTION_SIZE = 6;
+
     private static final double EPS = 1e-8;
     private static final double PUSH_OUT = 3.0;
 
@@ -39,14 +45,10 @@ public class Ball extends MovableObject {
         this.velX = speed * dirX;
         this.velY = speed * dirY;
         this.buffs = new HashMap<>();
-        try {
-            normalTexture = ImageIO.read(getClass().getResource("/textures/Ball.png"));
-            fireTexture = ImageIO.read(getClass().getResource("/textures/FireBall.png"));
-            texture = normalTexture;
-        } catch (IOException e) {
-            e.printStackTrace();
-            texture = null;
-        }
+        // Shared images: cloneAt/splitBall no longer decode PNGs
+        normalTexture = TextureCache.get(NORMAL_TEXTURE);
+        fireTexture = TextureCache.get(FIRE_TEXTURE);
+        texture = normalTexture;
     }
 
     // Getters and Setters:
@@ -88,15 +90,29 @@ public class Ball extends MovableObject {
      */
     @Override
     public void update(double deltaTime, ArrayList<GameObject> allObjects) {
+        update(deltaTime, allObjects, null, null, 0);
+    }
+
+    /**
+     * Same as update(deltaTime, allObjects), but also sweeps against bricks of a BrickField.
+     * Only the first {@code candidateCount} indices of {@code candidates} are checked
+     * (GameEngine fills them from BrickGrid). A brick hit is reported through
+     * lastCollision.targetIndex.
+     */
+    public void update(double deltaTime, ArrayList<GameObject> allObjects,
+                       BrickField bricks, int[] candidates, int candidateCount) {
+        boolean fireBall = buffs.containsKey(Buff.BuffType.Fire_Ball);
         double remainingTime = 1.0;
         int maxIterations = 5;
 
         for (int iter = 0; iter < maxIterations && remainingTime > EPS; iter++) {
             double moveX = this.velX * deltaTime * remainingTime;
             double moveY = this.velY * deltaTime * remainingTime;
-            CollisionResult bestCollision = null;
+            CollisionResult bestCollision = bestHit;
+            bestCollision.reset();
 
-            for (GameObject other : allObjects) {
+            for (int i = 0; i < allObjects.size(); i++) {
+                GameObject other = allObjects.get(i);
                 if (other instanceof Ball || other instanceof Buff || other instanceof Paddle) continue;
                 if (other instanceof Brick) {
                     Brick brick = (Brick) other;
@@ -106,14 +122,31 @@ public class Ball extends MovableObject {
                     }
                 }
 
-                CollisionResult currentCollision = CollisionUtils.sweptAABB(this, other, moveX, moveY);
-                if (currentCollision != null && (bestCollision == null || currentCollision.t < bestCollision.t)) {
-                    bestCollision = currentCollision;
+                // Read bounds straight from the fields; keeps only the earliest hit in bestCollision
+                if (CollisionUtils.sweptAABB(posX, posY, width, height,
+                        other.posX, other.posY, other.width, other.height, moveX, moveY, bestCollision)) {
+                    bestCollision.targetObject = other;
+                    bestCollision.targetIndex = -1;
                 }
             }
 
-            if (bestCollision != null && bestCollision.t < 1.0) {
-                lastCollision = bestCollision;
+            for (int i = 0; i < candidateCount; i++) {
+                int brick = candidates[i];
+                if (!bricks.isLive(brick)) continue; // destroyed earlier this tick
+                if (fireBall && bricks.getType(brick) != BrickField.BrickType.Ice) {
+                    continue; // Fire Ball skips non-Ice bricks
+                }
+                if (CollisionUtils.sweptAABB(posX, posY, width, height,
+                        bricks.getPosX(brick), bricks.getPosY(brick), bricks.getWidth(brick), bricks.getHeight(brick),
+                        moveX, moveY, bestCollision)) {
+                    bestCollision.targetObject = null;
+                    bestCollision.targetIndex = brick;
+                }
+            }
+
+            if (bestCollision.t < 1.0) {
+                lastHit.copyFrom(bestCollision);
+                lastCollision = lastHit;
                 double t = Math.max(bestCollision.t, 0.0);
                 this.posX += moveX * t;
                 this.posY += moveY * t;
@@ -156,6 +189,27 @@ public class Ball extends MovableObject {
         texture = buffs.containsKey(Buff.BuffType.Fire_Ball) ? fireTexture : normalTexture;
     }
 
+    /** Copy position, velocity and direction into {@code out} (MOTION_SIZE long). */
+    public void saveMotion(double[] out) {
+        out[0] = posX;
+        out[1] = posY;
+        out[2] = velX;
+        out[3] = velY;
+        out[4] = dirX;
+        out[5] = dirY;
+    }
+
+    /** Undo update(...) using values from saveMotion. */
+    public void restoreMotion(double[] in) {
+        posX = in[0];
+        posY = in[1];
+        velX = in[2];
+        velY = in[3];
+        dirX = in[4];
+        dirY = in[5];
+        lastCollision = null;
+    }
+
     public Ball cloneAt(double posX, double posY, double velX, double velY) {
         double len = Math.sqrt(velX * velX + velY * velY);
         double newDirX = len > EPS ? velX / len : this.dirX;
@@ -0,0 +1,85 @@
+import java.util.ArrayList;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * BallSweep: the swept-AABB movement of one ball against the bricks, as a reusable ForkJoin task.
+ * <p>
+ * GameEngine runs the sweeps of all balls in parallel (they only read the BrickField/BrickGrid
+ * and each ball only writes itself), then merges the hits one ball at a time in list order.
+ * A sweep is stale when a brick among its candidates was destroyed by an earlier ball during
+ * that merge; the serial loop would not have seen that brick, so the ball is put back where
+ * it started and swept again. That keeps the result identical to sweeping one ball after another.
+ */
+public class BallSweep extends RecursiveAction {
+    private static final double LARGE_PUSH = 3.0;
+    private static final ArrayList<GameObject> NO_OBJECTS = new ArrayList<>();
+
+    private Ball ball;
+    private double deltaTime;
+    private BrickField bricks;
+    private BrickGrid grid;
+
+    // Candidate bricks the sweep looked at (BrickField indices)
+    private int[] candidates = new int[0];
+    private int candidateCount;
+
+    // Ball motion before the sweep, to undo a stale sweep
+    private final double[] start = new double[Ball.MOTION_SIZE];
+
+    /**
+     * Set up this task for {@code ball}. Must be called before every sweep (also resets
+     * the ForkJoin state so the same object can be forked again next tick).
+     */
+    public void prepare(Ball ball, double deltaTime, BrickField bricks, BrickGrid grid) {
+        reinitialize();
+        this.ball = ball;
+        this.deltaTime = deltaTime;
+        this.bricks = bricks;
+        this.grid = grid;
+        reserve(bricks.size());
+        ball.saveMotion(start);
+    }
+
+    /** Size the candidate buffer for a field of {@code brickCount} bricks (done when a level loads). */
+    public void reserve(int brickCount) {
+        if (candidates.length < brickCount) {
+            candidates = new int[brickCount];
+        }
+    }
+
+    public Ball getBall() {
+        return ball;
+    }
+
+    @Override
+    protected void compute() {
+        sweep();
+    }
+
+    /**
+     * Query the bricks the ball can reach this tick and move it (Ball.update).
+     * Only touches this ball and the candidate buffer, so sweeps of different balls can run at once.
+     */
+    public void sweep() {
+        double reachX = Math.abs(ball.getVelX()) * deltaTime + LARGE_PUSH;
+        double reachY = Math.abs(ball.getVelY()) * deltaTime + LARGE_PUSH;
+        candidateCount = grid.query(ball.getPosX() - reachX, ball.getPosY() - reachY,
+                ball.getPosX() + ball.getWidth() + reachX, ball.getPosY() + ball.getHeight() + reachY,
+                candidates);
+        ball.update(deltaTime, NO_OBJECTS, bricks, candidates, candidateCount);
+    }
+
+    /** True if a candidate brick has been destroyed since the sweep ran. */
+    public boolean isStale() {
+        for (int i = 0; i < candidateCount; i++) {
+            if (!bricks.isLive(candidates[i])) return true;
+        }
+        return false;
+    }
+
+    /** Put the ball back to its pre-sweep motion and sweep again against the current bricks. */
+    public void resweep() {
+        ball.restoreMotion(start);
+        sweep();
+    }
+}
@@ -0,0 +1,338 @@
+import java.awt.*;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * BinarySave: compact binary save format, the fast alternative to the XML saves.
+ * <p>
+ * Holds the same content as SaveManager's XML (stats, paddle, balls, live bricks, buffs),
+ * and unlike the XML loader it restores the falling buffs too. Written field by field into
+ * one ByteBuffer and out with a single channel write, so there is no DOM, no String
+ * conversion and no pretty-printing. Files start with MAGIC and a
+ * version number; SaveManager.loadGame() uses isBinary() to pick the format by header, not
+ * by file name.
+ * <p>
+ * Layout (big-endian): int MAGIC, short VERSION, long timestamp,
+ * int score, int lives, int level (version 2+), byte flags (gameOver, gameWon, paused),
+ * paddle: 5 doubles (x, y, width, height, speed),
+ * int ball count, per ball: 5 doubles (x, y, width, height, speed) + byte launched,
+ * int brick count, per brick: byte type ordinal, 4 doubles (x, y, width, height), int hitPoints,
+ * int buff count, per buff: byte type ordinal, 4 doubles (x, y, width, height).
+ */
+public class BinarySave {
+    public static final int MAGIC = 0x42545356; // "BTSV"
+    public static final short VERSION = 2;
+    public static final String EXTENSION = ".sav";
+
+    private static final int VERSION_OFFSET = 4;
+    private static final int TIMESTAMP_OFFSET = 4 + 2;
+    private static final int SCORE_OFFSET = TIMESTAMP_OFFSET + 8;
+    private static final int LIVES_OFFSET = SCORE_OFFSET + 4;
+    private static final int LEVEL_OFFSET = LIVES_OFFSET + 4;
+    private static final int HEADER_SIZE = 4 + 2 + 8 + 4 + 4 + 4 + 1 + 5 * 8 + 4 + 4 + 4;
+    private static final int BALL_SIZE = 5 * 8 + 1;
+    private static final int BRICK_SIZE = 1 + 4 * 8 + 4;
+    private static final int BUFF_SIZE = 1 + 4 * 8;
+
+    private static final int FLAG_GAME_OVER = 1;
+    private static final int FLAG_GAME_WON = 2;
+    private static final int FLAG_PAUSED = 4;
+
+    private static final BrickField.BrickType[] BRICK_TYPES = BrickField.BrickType.values();
+    private static final Buff.BuffType[] BUFF_TYPES = Buff.BuffType.values();
+
+    private BinarySave() {}
+
+    /**
+     * Write the state of {@code engine} to {@code file}, crash-safe (SaveWriter.writeAtomically).
+     */
+    public static void write(Path file, GameEngine engine) throws IOException {
+        SaveWriter.writeAtomically(file, encode(engine));
+    }
+
+    /**
+     * Load {@code file} into {@code engine}.
+     *
+     * @throws IOException if the file cannot be read, is not a binary save or is truncated
+     */
+    public static void read(Path file, GameEngine engine, int screenWidth, int screenHeight) throws IOException {
+        decode(ByteBuffer.wrap(Files.readAllBytes(file)), engine, screenWidth, screenHeight);
+    }
+
+    /** True if {@code file} starts with the binary save header. */
+    public static boolean isBinary(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(4);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading until 4 bytes or EOF
+            }
+            return header.position() == 4 && header.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /** Timestamp written in an encoded save (does not move the buffer position). */
+    public static long timestampOf(ByteBuffer save) {
+        return save.getLong(save.position() + TIMESTAMP_OFFSET);
+    }
+
+    /** Score written in an encoded save (does not move the buffer position). */
+    public static int scoreOf(ByteBuffer save) {
+        return save.getInt(save.position() + SCORE_OFFSET);
+    }
+
+    /** Level written in an encoded save, 0 for version 1 saves (no level). */
+    public static int levelOf(ByteBuffer save) {
+        if (save.getShort(save.position() + VERSION_OFFSET) < 2) return 0;
+        return save.getInt(save.position() + LEVEL_OFFSET);
+    }
+
+    /** Lives written in an encoded save (does not move the buffer position). */
+    public static int livesOf(ByteBuffer save) {
+        return save.getInt(save.position() + LIVES_OFFSET);
+    }
+
+    /** Number of bricks left in an encoded save (skips over the balls, reads nothing else). */
+    public static int brickCountOf(ByteBuffer save) {
+        int ballCount = save.position() + ballCountOffset(save);
+        return save.getInt(ballCount + 4 + save.getInt(ballCount) * BALL_SIZE);
+    }
+
+    // Offset of the ball count from the start of the save (version 1 has no level field)
+    private static int ballCountOffset(ByteBuffer save) {
+        int levelSize = save.getShort(save.position() + VERSION_OFFSET) < 2 ? 0 : 4;
+        return LEVEL_OFFSET + levelSize + 1 + 5 * 8;
+    }
+
+    /**
+     * Draw the playfield of an encoded save (bricks, paddle, balls, falling buffs) in screen
+     * coordinates, e.g. for slot thumbnails. Does not move the buffer position.
+     *
+     * @throws IOException if the save is truncated or corrupt
+     */
+    public static void drawPlayfield(ByteBuffer save, Graphics2D g) throws IOException {
+        ByteBuffer in = save.duplicate();
+        try {
+            in.position(in.position() + ballCountOffset(save) - 5 * 8); // paddle
+            double paddleX = in.getDouble();
+            double paddleY = in.getDouble();
+            double paddleWidth = in.getDouble();
+            double paddleHeight = in.getDouble();
+            in.getDouble(); // speed
+            String paddleTexture = paddleWidth > 100 ? Paddle.ENLARGED_TEXTURE : Paddle.NORMAL_TEXTURE;
+
+            int ballCount = in.getInt();
+            checkCount(in, ballCount, BALL_SIZE);
+            int balls = in.position();
+            in.position(balls + ballCount * BALL_SIZE);
+
+            int brickCount = in.getInt();
+            checkCount(in, brickCount, BRICK_SIZE);
+            for (int i = 0; i < brickCount; i++) {
+                BrickField.BrickType type = BRICK_TYPES[in.get()];
+                drawTexture(g, type.getTexture(), in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble());
+                in.getInt(); // hitPoints
+            }
+
+            int buffCount = in.getInt();
+            checkCount(in, buffCount, BUFF_SIZE);
+            for (int i = 0; i < buffCount; i++) {
+                Buff.BuffType type = BUFF_TYPES[in.get()];
+                drawTexture(g, type.getTexture(), in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble());
+            }
+
+            drawTexture(g, TextureCache.get(paddleTexture), paddleX, paddleY, paddleWidth, paddleHeight);
+            in.position(balls);
+            for (int i = 0; i < ballCount; i++) {
+                drawTexture(g, TextureCache.get(Ball.NORMAL_TEXTURE), in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble());
+                in.position(in.position() + BALL_SIZE - 4 * 8);
+            }
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Corrupt binary save file", e);
+        }
+    }
+
+    private static void drawTexture(Graphics2D g, Image texture, double x, double y, double width, double height) {
+        if (texture == null) {
+            g.setColor(Color.GRAY);
+            g.fillRect((int) x, (int) y, (int) width, (int) height);
+        } else {
+            g.drawImage(texture, (int) x, (int) y, (int) width, (int) height, null);
+        }
+    }
+
+    /** Encode the engine state; the returned buffer is flipped and ready to write. */
+    public static ByteBuffer encode(GameEngine engine) {
+        return encode(engine, System.currentTimeMillis());
+    }
+
+    /**
+     * Encode the engine state with the given timestamp (also used as an id, e.g. by
+     * AutosaveJournal to match a journal to its snapshot).
+     */
+    public static ByteBuffer encode(GameEngine engine, long timestamp) {
+        Paddle paddle = engine.getPaddle();
+        ArrayList<Ball> balls = engine.getBalls();
+        BrickField bricks = engine.getBricks();
+        ArrayList<GameObject> buffs = engine.getBuffs();
+
+        int buffCount = 0;
+        for (GameObject buff : buffs) {
+            if (buff instanceof Buff) buffCount++;
+        }
+        ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + balls.size() * BALL_SIZE
+                + bricks.liveCount() * BRICK_SIZE + buffCount * BUFF_SIZE);
+
+        out.putInt(MAGIC);
+        out.putShort(VERSION);
+        out.putLong(timestamp);
+        out.putInt(engine.getScore());
+        out.putInt(engine.getLives());
+        out.putInt(engine.getCurrentLevel());
+        out.put((byte) ((engine.isGameOver() ? FLAG_GAME_OVER : 0)
+                | (engine.isGameWon() ? FLAG_GAME_WON : 0)
+                | (engine.isPaused() ? FLAG_PAUSED : 0)));
+
+        out.putDouble(paddle.getPosX());
+        out.putDouble(paddle.getPosY());
+        out.putDouble(paddle.getWidth());
+        out.putDouble(paddle.getHeight());
+        out.putDouble(paddle.getSpeed());
+
+        out.putInt(balls.size());
+        for (Ball ball : balls) {
+            out.putDouble(ball.getPosX());
+            out.putDouble(ball.getPosY());
+            out.putDouble(ball.getWidth());
+            out.putDouble(ball.getHeight());
+            out.putDouble(ball.getSpeed());
+            out.put((byte) (ball.isLaunched() ? 1 : 0));
+        }
+
+        // Only bricks that are not destroyed, like the XML save
+        out.putInt(bricks.liveCount());
+        for (int i = bricks.nextLive(0); i >= 0; i = bricks.nextLive(i + 1)) {
+            out.put((byte) bricks.getType(i).ordinal());
+            out.putDouble(bricks.getPosX(i));
+            out.putDouble(bricks.getPosY(i));
+            out.putDouble(bricks.getWidth(i));
+            out.putDouble(bricks.getHeight(i));
+            out.putInt(bricks.getHitPoints(i));
+        }
+
+        out.putInt(buffCount);
+        for (GameObject buff : buffs) {
+            if (buff instanceof Buff pup) {
+                out.put((byte) pup.getBuffType().ordinal());
+                out.putDouble(pup.getPosX());
+                out.putDouble(pup.getPosY());
+                out.putDouble(pup.getWidth());
+                out.putDouble(pup.getHeight());
+            }
+        }
+        return out.flip();
+    }
+
+    /**
+     * Decode a save produced by encode() into {@code engine}. Nothing is applied to the engine
+     * unless the whole buffer decodes.
+     */
+    public static void decode(ByteBuffer in, GameEngine engine, int screenWidth, int screenHeight) throws IOException {
+        try {
+            if (in.getInt() != MAGIC) {
+                throw new IOException("Not a binary save file");
+            }
+            short version = in.getShort();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Incompatible save file version: " + version);
+            }
+            in.getLong(); // timestamp
+            int score = in.getInt();
+            int lives = in.getInt();
+            int level = version >= 2 ? in.getInt() : engine.getCurrentLevel(); // version 1 had no level
+            int flags = in.get();
+
+            double paddleX = in.getDouble();
+            double paddleY = in.getDouble();
+            double paddleWidth = in.getDouble();
+            double paddleHeight = in.getDouble();
+            double paddleSpeed = in.getDouble();
+            Paddle paddle = new Paddle(paddleX, paddleY, paddleWidth, paddleHeight, 0, 0, paddleSpeed, screenWidth);
+
+            int ballCount = in.getInt();
+            checkCount(in, ballCount, BALL_SIZE);
+            if (ballCount < 1) {
+                // The engine always has a ball (on the paddle if none is in flight)
+                throw new IOException("Corrupt binary save file (no ball)");
+            }
+            ArrayList<Ball> balls = new ArrayList<>(ballCount);
+            for (int i = 0; i < ballCount; i++) {
+                double posX = in.getDouble();
+                double posY = in.getDouble();
+                double width = in.getDouble();
+                double height = in.getDouble();
+                double speed = in.getDouble();
+                Ball ball = new Ball(posX, posY, width, height, speed, 1, -1, screenWidth, screenHeight);
+                ball.setLaunched(in.get() != 0);
+                balls.add(ball);
+            }
+
+            int brickCount = in.getInt();
+            checkCount(in, brickCount, BRICK_SIZE);
+            BrickField bricks = new BrickField(brickCount);
+            for (int i = 0; i < brickCount; i++) {
+                BrickField.BrickType type = BRICK_TYPES[in.get()];
+                double posX = in.getDouble();
+                double posY = in.getDouble();
+                double width = in.getDouble();
+                double height = in.getDouble();
+                int hitPoints = in.getInt();
+                if (hitPoints <= 0) continue;
+                bricks.add(posX, posY, width, height, hitPoints, type);
+            }
+
+            // Falling buffs move the way GameEngine.spawnBuff set them up
+            int buffCount = in.getInt();
+            checkCount(in, buffCount, BUFF_SIZE);
+            ArrayList<GameObject> buffs = new ArrayList<>(buffCount);
+            for (int i = 0; i < buffCount; i++) {
+                Buff.BuffType type = BUFF_TYPES[in.get()];
+                double posX = in.getDouble();
+                double posY = in.getDouble();
+                double width = in.getDouble();
+                double height = in.getDouble();
+                Buff buff = new Buff(posX, posY, width, height, 0.0, 150.0, 150.0, 0.0, 1.0,
+                        screenWidth, screenHeight, type);
+                buff.savePreviousPosition();
+                buffs.add(buff);
+            }
+
+            engine.setScore(score);
+            engine.setLives(lives);
+            engine.setCurrentLevel(level);
+            engine.setGameOver((flags & FLAG_GAME_OVER) != 0);
+            engine.setGameWon((flags & FLAG_GAME_WON) != 0);
+            engine.setPaused((flags & FLAG_PAUSED) != 0);
+            engine.setPaddle(paddle);
+            engine.setBalls(balls);
+            engine.setBricks(bricks);
+            engine.setBuffs(buffs);
+            engine.markNewGame();
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Corrupt binary save file", e);
+        }
+    }
+
+    private static void checkCount(ByteBuffer in, int count, int recordSize) throws IOException {
+        if (count < 0 || (long) count * recordSize > in.remaining()) {
+            throw new IOException("Corrupt binary save file (bad count " + count + ")");
+        }
+    }
+}
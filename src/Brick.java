@@ -1,5 +1,4 @@
 import java.util.ArrayList;
-import java.util.Random;
 import java.awt.image.BufferedImage;
 
 public class Brick extends GameObject {
@@ -79,22 +78,6 @@ public class Brick extends GameObject {
         return false;
     }
 
-    /**
-     * Hook called when the brick is destroyed. Subclasses may override to play effects,
-     * drop items, increment score, etc. Default implementation does nothing.
-     */
-    protected Buff onDestroyed() {
-        // default: no-op
-        Random rand = new Random();
-        if (rand.nextDouble() < 0.3) {
-            Buff.BuffType buffType = Buff.BuffType.values()[rand.nextInt(6)];
-            return new Buff(posX + (width / 2.0) - 5.0, posY + height, 20.0, 20.0,
-                    0.0, 150.0, 150.0, 0.0, 1.0, screenWidth, screenHeight, buffType);
-        } else {
-            return null;
-        }
-    }
-
     /**
      * Check whether this brick is destroyed (hp == 0).
      */
@@ -0,0 +1,254 @@
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * BrickField: structure-of-arrays store for all bricks of a level.
+ * <p>
+ * Position, size, hit points and type of brick i live in primitive arrays at index i,
+ * and a bitset (long words, bit i = brick i) marks which bricks are still alive.
+ * Indices never move during a level, so BrickGrid and the collision code can refer to bricks by int index.
+ * Iterate live bricks with:
+ * <pre>
+ * for (int i = field.nextLive(0); i >= 0; i = field.nextLive(i + 1)) { ... }
+ * </pre>
+ */
+public class BrickField {
+
+    public enum BrickType {
+        Normal("textures/YellowBrick.png"),
+        Strong("textures/BlueBrick.png"),
+        Unbreakable("textures/RedBrick.png"),
+        Ice("textures/WhiteBrick.png"),
+        Super("textures/GreenBrick.png");
+
+        private final String texturePath;
+
+        BrickType(String texturePath) {
+            this.texturePath = texturePath;
+        }
+
+        public BufferedImage getTexture() {
+            return TextureCache.get(texturePath);
+        }
+
+        public String getTexturePath() {
+            return texturePath;
+        }
+
+        /** Name used in save files ("normal", "strong", ...). */
+        public String saveName() {
+            return name().toLowerCase();
+        }
+
+        public static BrickType fromSaveName(String name) {
+            for (BrickType type : TYPES) {
+                if (type.name().equalsIgnoreCase(name)) return type;
+            }
+            return Normal;
+        }
+
+        public static BrickType of(Brick brick) {
+            if (brick instanceof StrongBrick) return Strong;
+            if (brick instanceof UnbreakableBrick) return Unbreakable;
+            if (brick instanceof IceBrick) return Ice;
+            if (brick instanceof SuperBrick) return Super;
+            return Normal;
+        }
+    }
+
+    // values() clones the array on every call; keep one copy for tag -> type lookups
+    private static final BrickType[] TYPES = BrickType.values();
+
+    private double[] posX;
+    private double[] posY;
+    private double[] width;
+    private double[] height;
+    private int[] hitPoints;
+    private byte[] type;
+    private long[] live;
+    private int size;
+    private int liveCount;
+
+    public BrickField() {
+        this(64);
+    }
+
+    public BrickField(int capacity) {
+        capacity = Math.max(capacity, 1);
+        posX = new double[capacity];
+        posY = new double[capacity];
+        width = new double[capacity];
+        height = new double[capacity];
+        hitPoints = new int[capacity];
+        type = new byte[capacity];
+        live = new long[wordsFor(capacity)];
+    }
+
+    private static int wordsFor(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    /**
+     * Build a field from Brick objects (e.g. produced by the LevelLoader factories).
+     * Destroyed bricks are skipped.
+     */
+    public static BrickField fromBricks(List<Brick> bricks) {
+        BrickField field = new BrickField(bricks.size());
+        for (Brick brick : bricks) {
+            if (brick.isDestroyed()) continue;
+            field.add(brick.getPosX(), brick.getPosY(), brick.getWidth(), brick.getHeight(),
+                    brick.getHitPoints(), BrickType.of(brick));
+        }
+        return field;
+    }
+
+    /**
+     * Append a live brick and return its index.
+     */
+    public int add(double x, double y, double w, double h, int hp, BrickType brickType) {
+        if (w < 0 || h < 0) throw new IllegalArgumentException("width/height must be >= 0");
+        if (hp <= 0) throw new IllegalArgumentException("hitPoints must be > 0");
+        if (size == posX.length) {
+            grow();
+        }
+        int i = size++;
+        posX[i] = x;
+        posY[i] = y;
+        width[i] = w;
+        height[i] = h;
+        hitPoints[i] = hp;
+        type[i] = (byte) brickType.ordinal();
+        live[i >>> 6] |= 1L << i;
+        liveCount++;
+        return i;
+    }
+
+    private void grow() {
+        int capacity = posX.length * 2;
+        posX = Arrays.copyOf(posX, capacity);
+        posY = Arrays.copyOf(posY, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        hitPoints = Arrays.copyOf(hitPoints, capacity);
+        type = Arrays.copyOf(type, capacity);
+        live = Arrays.copyOf(live, wordsFor(capacity));
+    }
+
+    public void clear() {
+        Arrays.fill(live, 0L);
+        size = 0;
+        liveCount = 0;
+    }
+
+    /** Number of slots used (live + destroyed). */
+    public int size() {
+        return size;
+    }
+
+    public int liveCount() {
+        return liveCount;
+    }
+
+    public boolean isLive(int i) {
+        return (live[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /**
+     * Index of the first live brick at or after {@code from}, or -1 if none.
+     */
+    public int nextLive(int from) {
+        return nextSet(live, from);
+    }
+
+    /**
+     * nextSetBit over raw bitset words (also used on snapshot copies of the live bits).
+     */
+    public static int nextSet(long[] words, int from) {
+        int w = from >>> 6;
+        if (w >= words.length) return -1;
+        long word = words[w] & (-1L << from);
+        while (true) {
+            if (word != 0) return (w << 6) + Long.numberOfTrailingZeros(word);
+            if (++w >= words.length) return -1;
+            word = words[w];
+        }
+    }
+
+    /** Number of long words holding the live bits. */
+    public int liveWordCount() {
+        return wordsFor(size);
+    }
+
+    /**
+     * Copy the live bits into {@code dst} (at least liveWordCount() long). No allocation.
+     */
+    public void copyLiveBits(long[] dst) {
+        System.arraycopy(live, 0, dst, 0, wordsFor(size));
+    }
+
+    public double getPosX(int i) {
+        return posX[i];
+    }
+
+    public double getPosY(int i) {
+        return posY[i];
+    }
+
+    public double getWidth(int i) {
+        return width[i];
+    }
+
+    public double getHeight(int i) {
+        return height[i];
+    }
+
+    public int getHitPoints(int i) {
+        return hitPoints[i];
+    }
+
+    public BrickType getType(int i) {
+        return TYPES[type[i]];
+    }
+
+    public BufferedImage getTexture(int i) {
+        return TYPES[type[i]].getTexture();
+    }
+
+    public String getTexturePath(int i) {
+        return TYPES[type[i]].texturePath;
+    }
+
+    /**
+     * Set the hit points of brick i; 0 destroys it, more than 0 brings it back (RewindBuffer).
+     */
+    public void setHitPoints(int i, int hp) {
+        if (hp < 0) throw new IllegalArgumentException("hitPoints must be >= 0");
+        boolean wasLive = isLive(i);
+        hitPoints[i] = hp;
+        if (hp > 0 && !wasLive) {
+            live[i >>> 6] |= 1L << i;
+            liveCount++;
+        } else if (hp == 0 && wasLive) {
+            live[i >>> 6] &= ~(1L << i);
+            liveCount--;
+        }
+    }
+
+    /**
+     * Apply damage to brick i. Returns true if the brick was destroyed by this damage
+     * (same rules as Brick.takeDamage).
+     */
+    public boolean takeDamage(int i, int damage) {
+        if (damage < 0) throw new IllegalArgumentException("damage must be >= 0");
+        if (!isLive(i)) return false; // already destroyed
+        hitPoints[i] -= damage;
+        if (hitPoints[i] <= 0) {
+            hitPoints[i] = 0;
+            live[i >>> 6] &= ~(1L << i);
+            liveCount--;
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,191 @@
+import java.util.Arrays;
+
+/**
+ * Uniform-grid spatial index for bricks.
+ * <p>
+ * LevelLoader places every brick on a regular row/column layout
+ * (offsetX + col * (brickWidth + brickPadding), offsetY + row * (brickHeight + brickPadding)),
+ * so each brick fits in exactly one cell of that layout. Collision queries then only
+ * visit the cells an AABB touches instead of the whole brick list.
+ * Bricks that do not fit a single cell (e.g. loaded from an old save) go to a small
+ * "loose" list that is always checked.
+ * <p>
+ * Cells hold BrickField indices (-1 = empty).
+ * <p>
+ * rebuild() indexes the live bricks and queries skip destroyed ones (the engine's index).
+ * rebuildAll() indexes every brick, destroyed or not, and leaves liveness to the caller
+ * (e.g. BrickLayer on the EDT, which keeps its own copy of the live bits).
+ */
+public class BrickGrid {
+    private final double originX;
+    private final double originY;
+    private final double cellWidth;
+    private final double cellHeight;
+
+    private BrickField field;
+    private int cols;
+    private int rows;
+    private int[] cells = new int[0];
+    private int[] looseBricks = new int[8];
+    private int looseCount;
+    private boolean liveOnly = true;
+
+    /**
+     * @param originX    X of the first column (LevelLoader offsetX)
+     * @param originY    Y of the first row (LevelLoader offsetY)
+     * @param cellWidth  brickWidth + brickPadding
+     * @param cellHeight brickHeight + brickPadding
+     */
+    public BrickGrid(double originX, double originY, double cellWidth, double cellHeight) {
+        if (cellWidth <= 0 || cellHeight <= 0) {
+            throw new IllegalArgumentException("cell size must be > 0");
+        }
+        this.originX = originX;
+        this.originY = originY;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Rebuild the index from a brick field. Destroyed bricks are skipped.
+     */
+    public void rebuild(BrickField field) {
+        rebuild(field, true);
+    }
+
+    /**
+     * Rebuild the index from every brick of a field, destroyed ones included; queries then
+     * return bricks whatever their state. The field's layout must not change afterwards.
+     */
+    public void rebuildAll(BrickField field) {
+        rebuild(field, false);
+    }
+
+    private void rebuild(BrickField field, boolean liveOnly) {
+        this.field = field;
+        this.liveOnly = liveOnly;
+        looseCount = 0;
+
+        int maxCol = -1;
+        int maxRow = -1;
+        for (int i = first(); i >= 0; i = next(i)) {
+            if (!fitsOneCell(i)) continue;
+            maxCol = Math.max(maxCol, colOf(field.getPosX(i)));
+            maxRow = Math.max(maxRow, rowOf(field.getPosY(i)));
+        }
+        cols = maxCol + 1;
+        rows = maxRow + 1;
+        if (cells.length < cols * rows) {
+            cells = new int[cols * rows];
+        }
+        Arrays.fill(cells, -1);
+
+        for (int i = first(); i >= 0; i = next(i)) {
+            if (fitsOneCell(i)) {
+                int index = rowOf(field.getPosY(i)) * cols + colOf(field.getPosX(i));
+                if (cells[index] < 0) {
+                    cells[index] = i;
+                    continue;
+                }
+            }
+            if (looseCount == looseBricks.length) {
+                looseBricks = Arrays.copyOf(looseBricks, looseCount * 2);
+            }
+            looseBricks[looseCount++] = i;
+        }
+    }
+
+    /**
+     * Remove a brick from the index (called when it is destroyed).
+     */
+    public void remove(int brick) {
+        if (fitsOneCell(brick)) {
+            int col = colOf(field.getPosX(brick));
+            int row = rowOf(field.getPosY(brick));
+            if (col < cols && row < rows) {
+                int index = row * cols + col;
+                if (cells[index] == brick) {
+                    cells[index] = -1;
+                    return;
+                }
+            }
+        }
+        for (int i = 0; i < looseCount; i++) {
+            if (looseBricks[i] == brick) {
+                // Shift instead of swapping in the last one: queries keep returning the
+                // remaining bricks in the same order (BallSweep relies on that)
+                System.arraycopy(looseBricks, i + 1, looseBricks, i, looseCount - i - 1);
+                looseCount--;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Write the index of every live brick (every brick after rebuildAll) whose cell overlaps
+     * the given AABB into {@code out}, starting at 0, and return how many were written.
+     * {@code out} must hold at least {@code field.size()} entries.
+     * Cells are visited row by row, in the same order LevelLoader created the bricks.
+     */
+    public int query(double minX, double minY, double maxX, double maxY, int[] out) {
+        int count = 0;
+        if (cols > 0 && rows > 0) {
+            int col0 = Math.max(0, colOf(minX));
+            int col1 = Math.min(cols - 1, colOf(maxX));
+            int row0 = Math.max(0, rowOf(minY));
+            int row1 = Math.min(rows - 1, rowOf(maxY));
+            for (int row = row0; row <= row1; row++) {
+                int base = row * cols;
+                for (int col = col0; col <= col1; col++) {
+                    int brick = cells[base + col];
+                    if (brick >= 0 && (!liveOnly || field.isLive(brick))) {
+                        out[count++] = brick;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < looseCount; i++) {
+            int brick = looseBricks[i];
+            if (liveOnly && !field.isLive(brick)) continue;
+            if (field.getPosX(brick) <= maxX && field.getPosX(brick) + field.getWidth(brick) >= minX
+                    && field.getPosY(brick) <= maxY && field.getPosY(brick) + field.getHeight(brick) >= minY) {
+                out[count++] = brick;
+            }
+        }
+        return count;
+    }
+
+    /** First brick to index (-1 if none): the first live one, or 0 after rebuildAll. */
+    private int first() {
+        return liveOnly ? field.nextLive(0) : field.size() > 0 ? 0 : -1;
+    }
+
+    private int next(int brick) {
+        return liveOnly ? field.nextLive(brick + 1) : brick + 1 < field.size() ? brick + 1 : -1;
+    }
+
+    private int colOf(double x) {
+        return (int) Math.floor((x - originX) / cellWidth);
+    }
+
+    private int rowOf(double y) {
+        return (int) Math.floor((y - originY) / cellHeight);
+    }
+
+    private boolean fitsOneCell(int brick) {
+        double x = field.getPosX(brick);
+        double y = field.getPosY(brick);
+        if (x < originX || y < originY) return false;
+        double right = x + field.getWidth(brick);
+        double bottom = y + field.getHeight(brick);
+        return colOf(x) == colOf(right - 1e-9) && rowOf(y) == rowOf(bottom - 1e-9);
+    }
+}
@@ -0,0 +1,157 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * BrickLayer: the brick field pre-rendered into one offscreen image.
+ * <p>
+ * Bricks never move during a level and only change when one is destroyed, so GamePanel
+ * blits this layer with a single drawImage instead of drawing every live brick each frame.
+ * The layer remembers which bricks it has drawn (a copy of the live bits); on each frame the
+ * bits of the snapshot are compared word by word and only the rectangles of bricks that
+ * changed are cleared and redrawn; the bricks overlapping a cleared rectangle come from the
+ * layer's own BrickGrid over the whole field, not a scan of every brick. A new BrickField (next level, load) or a new panel size
+ * rebuilds the whole layer. Bricks are drawn from the TextureAtlas (already at brick size).
+ * EDT only.
+ */
+public class BrickLayer {
+    private TextureAtlas atlas;
+    private GraphicsConfiguration config;
+    private BufferedImage image;
+    private BrickField field;
+    private long[] drawnLive = new long[0];
+    private final BrickGrid grid;
+    private int[] nearby = new int[0];
+    private int fullRebuilds;
+    private long dirtyBricks;
+
+    /**
+     * @param grid empty grid with the level layout (GameEngine.createBrickGrid); owned by the layer
+     */
+    public BrickLayer(TextureAtlas atlas, BrickGrid grid) {
+        this.atlas = atlas;
+        this.grid = grid;
+    }
+
+    /** Draw from another atlas (e.g. one built for a new display); rebuilds on the next draw. */
+    public void setAtlas(TextureAtlas atlas) {
+        this.atlas = atlas;
+        this.field = null;
+    }
+
+    /**
+     * Bring the layer up to date with {@code snap} and draw it at (0, 0).
+     *
+     * @param config screen configuration for a compatible image (null = plain ARGB image)
+     */
+    public void draw(Graphics2D g, RenderSnapshot snap, int width, int height, GraphicsConfiguration config) {
+        if (width <= 0 || height <= 0 || snap.bricks == null) return;
+        if (image == null || image.getWidth() != width || image.getHeight() != height
+                || field != snap.bricks || config != this.config) {
+            rebuild(snap, width, height, config);
+        } else {
+            update(snap);
+        }
+        g.drawImage(image, 0, 0, null);
+    }
+
+    /** Number of times the whole layer was redrawn. */
+    public int getFullRebuilds() {
+        return fullRebuilds;
+    }
+
+    /** Number of bricks redrawn incrementally since the layer was created. */
+    public long getDirtyBricks() {
+        return dirtyBricks;
+    }
+
+    private void rebuild(RenderSnapshot snap, int width, int height, GraphicsConfiguration config) {
+        if (image == null || image.getWidth() != width || image.getHeight() != height || config != this.config) {
+            this.config = config;
+            image = config != null
+                    ? config.createCompatibleImage(width, height, Transparency.TRANSLUCENT)
+                    : new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        }
+        field = snap.bricks;
+        int words = field.liveWordCount();
+        if (drawnLive.length < words) {
+            drawnLive = new long[words];
+        }
+        System.arraycopy(snap.brickLive, 0, drawnLive, 0, words);
+        // Every brick, destroyed or not: the field's live bits belong to the simulation thread
+        grid.rebuildAll(field);
+        if (nearby.length < field.size()) {
+            nearby = new int[field.size()];
+        }
+
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(0, 0, width, height);
+            g.setComposite(AlphaComposite.SrcOver);
+            for (int i = BrickField.nextSet(drawnLive, 0); i >= 0 && i < field.size(); i = BrickField.nextSet(drawnLive, i + 1)) {
+                drawBrick(g, i);
+            }
+        } finally {
+            g.dispose();
+        }
+        fullRebuilds++;
+    }
+
+    private void update(RenderSnapshot snap) {
+        Graphics2D g = null;
+        int words = field.liveWordCount();
+        try {
+            for (int w = 0; w < words; w++) {
+                long changed = snap.brickLive[w] ^ drawnLive[w];
+                while (changed != 0) {
+                    int brick = (w << 6) + Long.numberOfTrailingZeros(changed);
+                    changed &= changed - 1;
+                    drawnLive[w] ^= 1L << brick;
+                    if (g == null) g = image.createGraphics();
+                    redraw(g, brick);
+                }
+            }
+        } finally {
+            if (g != null) g.dispose();
+        }
+    }
+
+    /**
+     * Clear the rectangle of {@code brick} and draw again every drawn brick that overlaps it
+     * (just the brick itself on a normal grid layout).
+     */
+    private void redraw(Graphics2D g, int brick) {
+        int x = (int) Math.floor(field.getPosX(brick));
+        int y = (int) Math.floor(field.getPosY(brick));
+        int w = (int) Math.ceil(field.getPosX(brick) + field.getWidth(brick)) - x;
+        int h = (int) Math.ceil(field.getPosY(brick) + field.getHeight(brick)) - y;
+
+        g.setClip(x, y, w, h);
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(x, y, w, h);
+        g.setComposite(AlphaComposite.SrcOver);
+        int count = grid.query(x, y, x + w, y + h, nearby);
+        int hits = 0;
+        for (int j = 0; j < count; j++) {
+            int i = nearby[j];
+            if ((drawnLive[i >>> 6] & (1L << i)) != 0
+                    && field.getPosX(i) < x + w && field.getPosX(i) + field.getWidth(i) > x
+                    && field.getPosY(i) < y + h && field.getPosY(i) + field.getHeight(i) > y) {
+                nearby[hits++] = i;
+            }
+        }
+        // Same painting order as a full rebuild (by index) where bricks overlap
+        Arrays.sort(nearby, 0, hits);
+        for (int j = 0; j < hits; j++) {
+            drawBrick(g, nearby[j]);
+        }
+        g.setClip(null);
+        dirtyBricks++;
+    }
+
+    private void drawBrick(Graphics2D g, int i) {
+        atlas.draw(g, field.getTexturePath(i), (int) field.getPosX(i), (int) field.getPosY(i),
+                (int) field.getWidth(i), (int) field.getHeight(i));
+    }
+}
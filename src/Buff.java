@@ -1,7 +1,5 @@
 import java.util.ArrayList;
-import javax.imageio.ImageIO;
 import java.awt.*;
-import java.io.IOException;
 
 public class Buff extends MovableObject {
     private double speed;    // Tốc độ cơ bản (ví dụ: 300 pixel/giây)
@@ -20,7 +18,6 @@ public class Buff extends MovableObject {
         EnlargedPaddle_Ball("textures/Enlarged_Paddle_Buff.png");
 
         private final String texturePath;
-        private Image texture;
 
         BuffType(String texturePath) {
             this.texturePath = texturePath;
@@ -28,14 +25,12 @@ public class Buff extends MovableObject {
 
         public Image getTexture() {
             if (texturePath == null) return null;
-            if (texture == null) {
-                try {
-                    texture = ImageIO.read(getClass().getClassLoader().getResource(texturePath));
-                } catch (IOException | IllegalArgumentException e) {
-                    System.err.println("Không thể load texture: " + texturePath);
-                }
-            }
-            return texture;
+            return TextureCache.get(texturePath);
+        }
+
+        /** Path of the texture, null for Normal_Ball (not drawn). */
+        public String getTexturePath() {
+            return texturePath;
         }
     }
     private BuffType buff;
@@ -13,10 +13,34 @@ class CollisionResult {
     /** Vật thể mà chúng ta va chạm vào */
     public GameObject targetObject = null;
 
+    /** Chỉ số viên gạch trong BrickField bị va chạm (-1 nếu không phải gạch) */
+    public int targetIndex = -1;
+
     /** Tọa độ điểm chạm ước tính (tính được khi cần) */
     public double contactX = Double.NaN;
     public double contactY = Double.NaN;
 
+    /** Clear back to "no collision" so the instance can be reused. */
+    public void reset() {
+        t = 1.0;
+        normalX = 0.0;
+        normalY = 0.0;
+        targetObject = null;
+        targetIndex = -1;
+        contactX = Double.NaN;
+        contactY = Double.NaN;
+    }
+
+    public void copyFrom(CollisionResult other) {
+        t = other.t;
+        normalX = other.normalX;
+        normalY = other.normalY;
+        targetObject = other.targetObject;
+        targetIndex = other.targetIndex;
+        contactX = other.contactX;
+        contactY = other.contactY;
+    }
+
     public boolean hasCollision() {
         return t >= 0.0 && t < 1.0;
     }
@@ -29,24 +53,12 @@ public class CollisionUtils {
 
 
 
-    private static boolean aabbOverlap(GameObject a, GameObject b) {
-
-        return a.getPosX() < b.getPosX() + b.getWidth()
-
-                && a.getPosX() + a.getWidth() > b.getPosX()
-
-                && a.getPosY() < b.getPosY() + b.getHeight()
-
-                && a.getPosY() + a.getHeight() > b.getPosY();
-
-    }
-
-
-
     /**
 
      * Swept AABB continuous collision detection.
 
+     * Allocates a new CollisionResult; prefer the primitive overload in per-tick code.
+
      */
 
     public static CollisionResult sweptAABB(GameObject movingObject, GameObject stationaryObject, double deltaX, double deltaY) {
@@ -65,19 +77,69 @@ public class CollisionUtils {
 
 
 
-        // If already overlapping, return immediate collision (t=0).
+        if (sweptAABB(movingObject.getPosX(), movingObject.getPosY(), movingObject.getWidth(), movingObject.getHeight(),
 
-        if (aabbOverlap(movingObject, stationaryObject)) {
+                stationaryObject.getPosX(), stationaryObject.getPosY(), stationaryObject.getWidth(), stationaryObject.getHeight(),
 
-            result.t = 0.0;
+                deltaX, deltaY, result)) {
 
             result.targetObject = stationaryObject;
 
+        }
+
+        return result;
+
+    }
+
+
+
+    /**
+
+     * Zero-allocation swept AABB on primitive bounds.
+
+     * <p>
+
+     * {@code best} is caller-owned and reused: it is only overwritten when this pair collides
+
+     * strictly earlier than {@code best.t}, so looping over candidates after {@code best.reset()}
+
+     * leaves the earliest hit in it. targetObject is not touched; set it when this returns true.
+
+     *
+
+     * @return true if {@code best} was updated with this hit
+
+     */
+
+    public static boolean sweptAABB(double movingX, double movingY, double movingW, double movingH,
+
+                                    double staticX, double staticY, double staticW, double staticH,
+
+                                    double deltaX, double deltaY, CollisionResult best) {
+
+        // If already overlapping, return immediate collision (t=0).
+
+        if (movingX < staticX + staticW && movingX + movingW > staticX
+
+                && movingY < staticY + staticH && movingY + movingH > staticY) {
+
+            if (!(0.0 < best.t)) return false;
+
+            best.t = 0.0;
+
             // Option: compute minimal push-out normal here.
 
             // For now we leave normals zero or you can set based on penetration direction.
 
-            return result;
+            best.normalX = 0.0;
+
+            best.normalY = 0.0;
+
+            best.contactX = Double.NaN;
+
+            best.contactY = Double.NaN;
+
+            return true;
 
         }
 
@@ -91,15 +153,15 @@ public class CollisionUtils {
 
         if (deltaX > 0.0) {
 
-            xInvEntry = stationaryObject.getPosX() - (movingObject.getPosX() + movingObject.getWidth());
+            xInvEntry = staticX - (movingX + movingW);
 
-            xInvExit = (stationaryObject.getPosX() + stationaryObject.getWidth()) - movingObject.getPosX();
+            xInvExit = (staticX + staticW) - movingX;
 
         } else {
 
-            xInvEntry = (stationaryObject.getPosX() + stationaryObject.getWidth()) - movingObject.getPosX();
+            xInvEntry = (staticX + staticW) - movingX;
 
-            xInvExit = stationaryObject.getPosX() - (movingObject.getPosX() + movingObject.getWidth());
+            xInvExit = staticX - (movingX + movingW);
 
         }
 
@@ -107,15 +169,15 @@ public class CollisionUtils {
 
         if (deltaY > 0.0) {
 
-            yInvEntry = stationaryObject.getPosY() - (movingObject.getPosY() + movingObject.getHeight());
+            yInvEntry = staticY - (movingY + movingH);
 
-            yInvExit = (stationaryObject.getPosY() + stationaryObject.getHeight()) - movingObject.getPosY();
+            yInvExit = (staticY + staticH) - movingY;
 
         } else {
 
-            yInvEntry = (stationaryObject.getPosY() + stationaryObject.getHeight()) - movingObject.getPosY();
+            yInvEntry = (staticY + staticH) - movingY;
 
-            yInvExit = stationaryObject.getPosY() - (movingObject.getPosY() + movingObject.getHeight());
+            yInvExit = staticY - (movingY + movingH);
 
         }
 
@@ -167,7 +229,7 @@ public class CollisionUtils {
 
         if (entryTime > exitTime || entryTime > 1.0 + EPS || entryTime < -EPS) {
 
-            return result; // no collision
+            return false; // no collision
 
         }
 
@@ -175,17 +237,23 @@ public class CollisionUtils {
 
         // There is a collision
 
-        result.t = Math.max(0.0, Math.min(1.0, entryTime)); // clamp into [0,1]
+        double t = Math.max(0.0, Math.min(1.0, entryTime)); // clamp into [0,1]
+
+        if (!(t < best.t)) {
 
-        result.targetObject = stationaryObject;
+            return false; // an earlier (or equal) hit is already recorded
+
+        }
+
+        best.t = t;
 
 
 
         // Reset normals explicitly
 
-        result.normalX = 0.0;
+        best.normalX = 0.0;
 
-        result.normalY = 0.0;
+        best.normalY = 0.0;
 
 
 
@@ -195,21 +263,21 @@ public class CollisionUtils {
 
             // Corner collision: set both normals according to movement direction.
 
-            if (deltaX > 0) result.normalX = -1.0; else if (deltaX < 0) result.normalX = 1.0;
+            if (deltaX > 0) best.normalX = -1.0; else if (deltaX < 0) best.normalX = 1.0;
 
-            if (deltaY > 0) result.normalY = -1.0; else if (deltaY < 0) result.normalY = 1.0;
+            if (deltaY > 0) best.normalY = -1.0; else if (deltaY < 0) best.normalY = 1.0;
 
         } else if (xEntryTime > yEntryTime) {
 
             // collision on X axis
 
-            if (deltaX > 0) result.normalX = -1.0; else result.normalX = 1.0;
+            if (deltaX > 0) best.normalX = -1.0; else best.normalX = 1.0;
 
         } else {
 
             // collision on Y axis
 
-            if (deltaY > 0) result.normalY = -1.0; else result.normalY = 1.0;
+            if (deltaY > 0) best.normalY = -1.0; else best.normalY = 1.0;
 
         }
 
@@ -217,18 +285,16 @@ public class CollisionUtils {
 
         // Optionally compute contact point (approximate)
 
-        double contactPosX = movingObject.getPosX() + deltaX * result.t;
+        best.contactX = movingX + deltaX * t;
 
-        double contactPosY = movingObject.getPosY() + deltaY * result.t;
+        best.contactY = movingY + deltaY * t;
 
-        result.contactX = contactPosX;
 
-        result.contactY = contactPosY;
 
+        return true;
 
+    }
 
-        return result;
 
-    }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,65 @@
+/**
+ * FrameProfiler: per-phase timings of one frame (an engine tick or a paint), one
+ * PhaseHistogram per phase.
+ * <p>
+ * A phase can run several times per frame (e.g. once per ball); lap() adds to the phase's
+ * total for the current frame and endFrame() records every total into its histogram.
+ * Usage:
+ * <pre>
+ * long t = System.nanoTime();
+ * ... paddle ...
+ * t = profiler.lap(PADDLE, t);
+ * ... buffs ...
+ * t = profiler.lap(BUFFS, t);
+ * profiler.endFrame();
+ * </pre>
+ * Only the owning thread may call lap/endFrame; histograms can be read from any thread.
+ */
+public class FrameProfiler {
+    private final PhaseHistogram[] phases;
+    private final PhaseHistogram total;
+    private final long[] frameNanos;
+
+    public FrameProfiler(String... phaseNames) {
+        phases = new PhaseHistogram[phaseNames.length];
+        for (int i = 0; i < phaseNames.length; i++) {
+            phases[i] = new PhaseHistogram(phaseNames[i]);
+        }
+        total = new PhaseHistogram("total");
+        frameNanos = new long[phaseNames.length];
+    }
+
+    /**
+     * Add the time since {@code startNanos} to {@code phase} and return the current time,
+     * which is the start of the next phase.
+     */
+    public long lap(int phase, long startNanos) {
+        long now = System.nanoTime();
+        frameNanos[phase] += now - startNanos;
+        return now;
+    }
+
+    /** Record this frame's phase totals and start a new frame. */
+    public void endFrame() {
+        long sum = 0;
+        for (int i = 0; i < phases.length; i++) {
+            phases[i].record(frameNanos[i]);
+            sum += frameNanos[i];
+            frameNanos[i] = 0;
+        }
+        total.record(sum);
+    }
+
+    public int getPhaseCount() {
+        return phases.length;
+    }
+
+    public PhaseHistogram getPhase(int phase) {
+        return phases[phase];
+    }
+
+    /** Sum of all phases per frame. */
+    public PhaseHistogram getTotal() {
+        return total;
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * FrameStats: rolling statistics of frame/tick intervals (nanoTime deltas).
+ * <p>
+ * Keeps the last WINDOW samples in a ring buffer. Jitter is the standard deviation of the
+ * intervals: 0 means perfectly even pacing. record() is cheap and allocation-free; the
+ * getters can be read from another thread (values may be a sample behind).
+ */
+public class FrameStats {
+    private static final int WINDOW = 240;
+
+    private final long[] samples = new long[WINDOW];
+    private int count;
+    private int next;
+    private long lastNanos;
+
+    /** Record one interval in nanoseconds. */
+    public synchronized void record(long intervalNanos) {
+        samples[next] = intervalNanos;
+        next = (next + 1) % WINDOW;
+        if (count < WINDOW) count++;
+    }
+
+    /** Record the time since the previous call to mark() (first call only starts the clock). */
+    public synchronized void mark(long nowNanos) {
+        if (lastNanos != 0) {
+            record(nowNanos - lastNanos);
+        }
+        lastNanos = nowNanos;
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+
+    /** Mean interval in milliseconds. */
+    public synchronized double getMeanMillis() {
+        if (count == 0) return 0.0;
+        long sum = 0;
+        for (int i = 0; i < count; i++) sum += samples[i];
+        return sum / (double) count / 1e6;
+    }
+
+    /** Standard deviation of the interval in milliseconds. */
+    public synchronized double getJitterMillis() {
+        if (count < 2) return 0.0;
+        double mean = getMeanMillis() * 1e6;
+        double sq = 0.0;
+        for (int i = 0; i < count; i++) {
+            double d = samples[i] - mean;
+            sq += d * d;
+        }
+        return Math.sqrt(sq / (count - 1)) / 1e6;
+    }
+
+    /** Longest interval in the window, in milliseconds. */
+    public synchronized double getMaxMillis() {
+        long max = 0;
+        for (int i = 0; i < count; i++) max = Math.max(max, samples[i]);
+        return max / 1e6;
+    }
+
+    public synchronized void reset() {
+        count = 0;
+        next = 0;
+        lastNanos = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.2f ms avg, %.2f ms jitter, %.2f ms max", getMeanMillis(), getJitterMillis(), getMaxMillis());
+    }
+}
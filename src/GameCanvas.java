@@ -0,0 +1,67 @@
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+import java.util.function.Consumer;
+
+/**
+ * GameCanvas: active rendering surface for the game.
+ * <p>
+ * Instead of repaint() -> paintComponent on the EDT, GameLoop calls present() right after it
+ * publishes a snapshot; the frame is drawn into a 3-buffer BufferStrategy and shown at once,
+ * so present timing is decided by the loop and not by Swing's repaint coalescing.
+ * Frames are capped at the display refresh rate (the loop ticks faster than that).
+ * Not focusable: keys keep going to GamePanel.
+ */
+public class GameCanvas extends Canvas {
+    private static final int BUFFERS = 3;
+
+    private final Consumer<Graphics2D> renderer;
+    private final long frameNanos;
+    private long lastPresent;
+
+    /**
+     * @param renderer    draws one full frame
+     * @param refreshRate display refresh rate (frames per second)
+     */
+    public GameCanvas(Consumer<Graphics2D> renderer, int refreshRate) {
+        this.renderer = renderer;
+        this.frameNanos = 1_000_000_000L / Math.max(1, refreshRate);
+        setIgnoreRepaint(true); // nothing is drawn through paint()
+        setFocusable(false);
+        setBackground(Color.BLACK);
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        createBufferStrategy(BUFFERS);
+    }
+
+    /**
+     * Draw and show one frame if a display frame has passed since the last one. Called from
+     * the GameLoop thread.
+     */
+    public void present() {
+        long now = System.nanoTime();
+        if (now - lastPresent < frameNanos - frameNanos / 8) return; // small slack for timer jitter
+        if (!isDisplayable() || !isShowing()) return;
+        BufferStrategy strategy = getBufferStrategy();
+        if (strategy == null) return;
+        lastPresent = now;
+        try {
+            do {
+                do {
+                    Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+                    try {
+                        renderer.accept(g);
+                    } finally {
+                        g.dispose();
+                    }
+                } while (strategy.contentsRestored());
+                strategy.show();
+            } while (strategy.contentsLost());
+            Toolkit.getDefaultToolkit().sync();
+        } catch (IllegalStateException e) {
+            // Canvas removed while drawing (e.g. back to menu): nothing to show any more
+        }
+    }
+}
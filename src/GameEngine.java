@@ -1,12 +1,13 @@
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Random;
 
 /**
  * GameEngine orchestrates game objects and high-level game state.
  * <p>
  * Notes on compatibility with the rest of your codebase:
  * - Uses ArrayList<GameObject> everywhere to match existing signatures.
- * - Bricks are instances of Brick (NormalBrick, StrongBrick, UnbreakableBrick).
+ * - Bricks live in a BrickField (structure-of-arrays); LevelLoader still builds them
+ * through the Brick factories and they are copied into the field on load.
  * - Ball.update(...) performs swept-AABB based movement; GameEngine still
  * manages scoring, lives, and simple discrete collision responses for bricks/paddle
  * (since Ball does not currently apply game logic like scoring or destroying bricks).
@@ -14,7 +15,7 @@ import java.util.Iterator;
 public class GameEngine {
     private Paddle paddle;
 
-    private ArrayList<Brick> bricks;
+    private BrickField bricks;
     private ArrayList<GameObject> buffs;
     private ArrayList<Ball> balls;
 
@@ -23,7 +24,7 @@ public class GameEngine {
     private boolean gameOver;
     private boolean gameWon;
     private boolean paused;
-    private final int Max_Ball = 6;
+    private final int Max_Ball; // most balls in play at once (Split_Ball stops there)
 
     int brickWidth = 60;
     int brickHeight = 20;
@@ -37,19 +38,75 @@ public class GameEngine {
     private LevelLoader levelLoader = new LevelLoader(brickWidth,brickHeight,brickPadding,offSetX,offSetY,screenWidth,screenHeight);
     private int currentLevel =1;
 
+    // Spatial index over bricks + reusable candidate buffer (BrickField indices)
+    private final BrickGrid brickGrid = levelLoader.createGrid();
+    private int[] nearbyBricks = new int[0];
+    // The only RNG of the game: same seed + same inputs => same session (see ReplayRecorder)
+    private long seed;
+    private int gameNumber; // bumped for every new game (restart, startSession, loaded save)
+    private final Random random;
+
+    // One reusable sweep task per ball; swept in parallel when enabled and enough balls are in flight
+    private BallSweep[] ballSweeps = new BallSweep[0];
+    private boolean parallelBalls = PARALLEL_BALLS;
+
+    // Per-phase tick timings (shown by the F3 overlay)
+    public static final int PHASE_PADDLE = 0;
+    public static final int PHASE_BUFFS = 1;
+    public static final int PHASE_SWEEP = 2;
+    public static final int PHASE_FALLBACK = 3;
+    public static final int PHASE_BRICKS = 4;
+    public static final int PHASE_LEVEL = 5;
+    private final FrameProfiler profiler =
+            new FrameProfiler("paddle", "buffs", "ball sweep", "fallback", "brick hits", "level");
+
+    // Told about brick damage, score / lives changes, buffs and new levels (e.g. AutosaveJournal)
+    private GameEvents events = GameEvents.NONE;
+
+    // Paddle/Buff.update ignore their object list; share one instead of allocating per call
+    private static final ArrayList<GameObject> NO_OBJECTS = new ArrayList<>();
+
     private static final int initialLives = 3;
     private static final int pointNormalBricks = 10;
     private static final int pointStrongBricks = 20;
+    private static final String brickSoundPath = "src/sounds/Brick Sound.wav";
     private static final double EPS = 1e-3;
     private static final double PUSH_OUT = 0.5;
     private static final double LARGE_PUSH = 3.0;
+    // A sweep takes a few microseconds, so forking can only pay off with many balls in flight.
+    // Measured (EngineJmh.engineUpdateManyBalls, 1 CPU): 2-3x slower than serial at 8 and 16
+    // balls. There are no multi-core numbers yet, so the parallel sweep is off unless
+    // -Dbtloop.parallelBalls=true, and 8 is not a measured crossover.
+    private static final int PARALLEL_MIN_BALLS = 8;
+    private static final boolean PARALLEL_BALLS = Boolean.getBoolean("btloop.parallelBalls");
+    // -Dbtloop.maxBalls=N: ball limit of engines built without one
+    public static final int DEFAULT_MAX_BALLS = Integer.getInteger("btloop.maxBalls", 6);
 
     public GameEngine(int screenWidth, int screenHeight) {
+        this(screenWidth, screenHeight, System.nanoTime());
+    }
+
+    public GameEngine(int screenWidth, int screenHeight, long seed) {
+        this(screenWidth, screenHeight, seed, DEFAULT_MAX_BALLS);
+    }
+
+    /**
+     * @param maxBalls most balls in play at once; the parallel ball sweep (when enabled) needs
+     *                 at least PARALLEL_MIN_BALLS (8) in flight, more than the default of 6
+     */
+    public GameEngine(int screenWidth, int screenHeight, long seed, int maxBalls) {
+        if (maxBalls < 1) {
+            throw new IllegalArgumentException("maxBalls must be >= 1: " + maxBalls);
+        }
+        this.Max_Ball = maxBalls;
+        this.seed = seed;
+        this.random = new Random(seed);
         this.screenWidth = screenWidth;
         this.screenHeight = screenHeight;
-        this.bricks = new ArrayList<>();
+        this.bricks = new BrickField();
         this.buffs = new ArrayList<>();
         this.balls = new ArrayList<>();
+        SoundBank.preload(brickSoundPath); // decode before the first hit, not during it
         initGame();
     }
 
@@ -62,12 +119,13 @@ public class GameEngine {
         this.paddle = paddle;
     }
 
-    public ArrayList<Brick> getBricks() {
+    public BrickField getBricks() {
         return bricks;
     }
 
-    public void setBricks(ArrayList<Brick> bricks) {
+    public void setBricks(BrickField bricks) {
         this.bricks = bricks;
+        indexBricks();
     }
 
     public ArrayList<GameObject> getBuffs() {
@@ -126,6 +184,64 @@ public class GameEngine {
         this.paused = paused;
     }
 
+    /** Timings of the update phases (PHASE_*), recorded every tick. */
+    public FrameProfiler getProfiler() {
+        return profiler;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /** Changes whenever a new game starts in this engine: restart, startSession or a loaded save. */
+    public int getGameNumber() {
+        return gameNumber;
+    }
+
+    /** Count the current state as a new game (called after a save is loaded into this engine). */
+    public void markNewGame() {
+        gameNumber++;
+    }
+
+    /**
+     * Start a fresh game on {@code level} with a new RNG seed. Together with the per-tick
+     * input this fully determines the session (used by ReplayRecorder / ReplayPlayer).
+     */
+    public void startSession(int level, long seed) {
+        this.seed = seed;
+        random.setSeed(seed);
+        currentLevel = level;
+        initGame();
+    }
+
+    /** An empty BrickGrid with this engine's brick layout, for an index of one's own (e.g. BrickLayer). */
+    public BrickGrid createBrickGrid() {
+        return levelLoader.createGrid();
+    }
+
+    public int getMaxBalls() {
+        return Max_Ball;
+    }
+
+    public boolean isParallelBalls() {
+        return parallelBalls;
+    }
+
+    /** Listener the engine reports game events to (GameEvents.NONE if none). */
+    public GameEvents getEvents() {
+        return events;
+    }
+
+    /** Listener for game events, null for none. Set it from the simulation thread. */
+    public void setEvents(GameEvents events) {
+        this.events = events != null ? events : GameEvents.NONE;
+    }
+
+    /** Turn the parallel ball sweep on/off (the result is the same either way). */
+    public void setParallelBalls(boolean parallelBalls) {
+        this.parallelBalls = parallelBalls;
+    }
+
     public int getScreenWidth() {
         return screenWidth;
     }
@@ -145,6 +261,7 @@ public class GameEngine {
     // --- Initialization ---
 
     private void initGame() {
+        gameNumber++;
         // Create Paddle.
         int paddleWidth = 100;
         int paddleHeight = 20;
@@ -186,10 +303,26 @@ public class GameEngine {
         ArrayList<Brick> loadedBricks = levelLoader.loadLevel(levelPath);
 
         if (loadedBricks != null) {
-            bricks = loadedBricks;
+            bricks = BrickField.fromBricks(loadedBricks);
         } else {
             System.err.println("Error loading level " + levelPath);
         }
+        indexBricks();
+    }
+
+    /**
+     * Rebuild the brick grid and size the candidate buffers after the field is replaced,
+     * so the next tick does not allocate them.
+     */
+    private void indexBricks() {
+        brickGrid.rebuild(bricks);
+        if (nearbyBricks.length < bricks.size()) {
+            nearbyBricks = new int[bricks.size()];
+        }
+        for (BallSweep sweep : ballSweeps) {
+            sweep.reserve(bricks.size());
+        }
+        events.levelChanged(currentLevel);
     }
 
     /**
@@ -199,6 +332,14 @@ public class GameEngine {
      */
     public void update(double deltaTime) {
         if (gameOver || gameWon || paused) return;
+        long t = System.nanoTime();
+        paddle.savePreviousPosition();
+        for (int i = 0; i < balls.size(); i++) {
+            balls.get(i).savePreviousPosition();
+        }
+        for (int i = 0; i < buffs.size(); i++) {
+            if (buffs.get(i) instanceof Buff buff) buff.savePreviousPosition();
+        }
         if (balls.getFirst().getBuffs().containsKey(Buff.BuffType.EnlargedPaddle_Ball)) {
             paddle.setWidth(200);
             paddle.enlarge();
@@ -207,34 +348,45 @@ public class GameEngine {
             paddle.minimize();
         }
         // Update paddle (it clamps itself inside update)
-        paddle.update(deltaTime, new ArrayList<>());
-        for (Iterator<GameObject> it =  buffs.iterator(); it.hasNext(); ) {
-            GameObject obj = it.next();
+        paddle.update(deltaTime, NO_OBJECTS);
+        t = profiler.lap(PHASE_PADDLE, t);
+        // Index loops (no Iterator objects) so a steady-state tick allocates nothing
+        for (int i = 0; i < buffs.size(); i++) {
+            GameObject obj = buffs.get(i);
             // Assume PowerUpBall extends GameObject and has update, isMarkedForRemoval(), getPowerUpType()
             if (obj instanceof Buff pup) {
-                pup.update(deltaTime, new ArrayList<>());
+                pup.update(deltaTime, NO_OBJECTS);
 
                 // If collected by paddle
                 if (paddle.intersects(pup)) {
+                    events.buffPickedUp(pup.getBuffType());
                     // apply effect
                     applyBuff(pup.getBuffType());
                     // mark / remove
-                    it.remove();
+                    buffs.remove(i--);
                     continue;
                 }
 
                 // If flagged for removal (e.g. fell below screen)
                 if (pup.isMarkedForRemoval()) {
-                    it.remove();
+                    buffs.remove(i--);
                 }
             } else {
             }
         }
+        t = profiler.lap(PHASE_BUFFS, t);
+
+        // Ball phase 1: swept-AABB movement of every launched ball (in parallel if worth it)
+        int launched = prepareSweeps(deltaTime);
+        boolean swept = parallelBalls && launched >= PARALLEL_MIN_BALLS;
+        if (swept) {
+            sweepInParallel(launched);
+        }
 
-        // Update ball using swept-AABB movement against allObjects
-        // Update all balls
-        for (Iterator<Ball> it = balls.iterator(); it.hasNext(); ) {
-            Ball ball = it.next();
+        // Ball phase 2: apply hits one ball at a time, in list order
+        int sweepIndex = 0;
+        for (int i = 0; i < balls.size(); i++) {
+            Ball ball = balls.get(i);
 
             if (!ball.isLaunched()) {
                 // Attached to paddle
@@ -244,62 +396,69 @@ public class GameEngine {
                 ball.setVelY(0.0);
                 continue;
             }
-            ArrayList<GameObject> allObjects = new ArrayList<>();
-            allObjects.add(paddle);
-            for (Brick brick : bricks) {
-                if (!brick.isDestroyed()) allObjects.add(brick);
+            // Ball in-flight
+            BallSweep sweep = ballSweeps[sweepIndex++];
+            if (!swept) {
+                sweep.sweep();
+            } else if (sweep.isStale()) {
+                sweep.resweep(); // an earlier ball broke a brick this sweep had counted on
             }
 
-            // Ball in-flight
-            ball.update(deltaTime, allObjects);
+            t = profiler.lap(PHASE_SWEEP, t);
 
             // Process swept collision with bricks
             CollisionResult c = ball.lastCollision;
-            if (c != null && c.targetObject instanceof Brick brick) {
+            if (c != null && c.targetIndex >= 0) {
+                int brick = c.targetIndex;
                 processBrickHit(brick);
-                if (brick instanceof IceBrick) {
+                if (bricks.getType(brick) == BrickField.BrickType.Ice) {
                     if (ball.getBuffs().containsKey(Buff.BuffType.Fire_Ball)) {
                         ball.getBuffs().remove(Buff.BuffType.Fire_Ball);
                     }
                 }
             }
             ball.lastCollision = null;
+            t = profiler.lap(PHASE_BRICKS, t);
 
             // Paddle collision
             if (ball.intersects(paddle)) {
                 handlePaddleCollisionArkanoid(ball, paddle);
             }
 
-            // Brick discrete collision fallback
-            if (ball.getBuffs().containsKey(Buff.BuffType.Fire_Ball)) {
-                for (Brick brick : bricks) {
-                    if (brick.isDestroyed()) continue;
-
-                    if (ball.intersects(brick)) {
-                        processBrickHit(brick);
-                    }
-                }
-            } else {
-                for (Brick brick : bricks) {
-                    if (brick.isDestroyed()) continue;
-                    if (ball.intersects(brick)) {
-                        processBrickHit(brick);
-                        ball.setVelY(-ball.getVelY());
-                        break;
-                    }
+            // Brick discrete collision fallback (only cells overlapped by the ball).
+            // Overlapping bricks are collected first (in place, in nearbyBricks) and hit after,
+            // so the profiler can tell the search from the brick hits.
+            int nearby = brickGrid.query(ball.getPosX(), ball.getPosY(),
+                    ball.getPosX() + ball.getWidth(), ball.getPosY() + ball.getHeight(), nearbyBricks);
+            boolean fireBall = ball.getBuffs().containsKey(Buff.BuffType.Fire_Ball);
+            int hits = 0;
+            for (int j = 0; j < nearby; j++) {
+                int brick = nearbyBricks[j];
+                if (!bricks.isLive(brick)) continue;
+                if (intersectsBrick(ball, brick)) {
+                    nearbyBricks[hits++] = brick;
+                    if (!fireBall) break; // a normal ball bounces off the first one only
                 }
             }
+            t = profiler.lap(PHASE_FALLBACK, t);
+            for (int j = 0; j < hits; j++) {
+                processBrickHit(nearbyBricks[j]);
+            }
+            if (hits > 0 && !fireBall) {
+                ball.setVelY(-ball.getVelY());
+            }
+            t = profiler.lap(PHASE_BRICKS, t);
 
             // Check if ball fell below screen
             if (ball.checkWallCollision()) {
-                it.remove();
+                balls.remove(i--);
             }
         }
-
-        bricks.removeIf(Brick::isDestroyed);
+        t = profiler.lap(PHASE_SWEEP, t);
 
         if (balls.isEmpty()) {
             lives--;
+            events.livesChanged(-1);
             if (lives <= 0) gameOver = true;
             else {
                 resetBall();
@@ -309,26 +468,87 @@ public class GameEngine {
         if (allBricksDestroyed()) {
             nextLevel();
         }
+        profiler.lap(PHASE_LEVEL, t);
+        profiler.endFrame();
+    }
+
+    /**
+     * Assign a BallSweep to each launched ball, in list order. Returns how many were prepared.
+     */
+    private int prepareSweeps(double deltaTime) {
+        if (ballSweeps.length < balls.size()) {
+            BallSweep[] grown = new BallSweep[Math.max(balls.size(), Max_Ball)];
+            System.arraycopy(ballSweeps, 0, grown, 0, ballSweeps.length);
+            for (int i = ballSweeps.length; i < grown.length; i++) {
+                grown[i] = new BallSweep();
+            }
+            ballSweeps = grown;
+        }
+        int count = 0;
+        for (int i = 0; i < balls.size(); i++) {
+            Ball ball = balls.get(i);
+            if (ball.isLaunched()) {
+                ballSweeps[count++].prepare(ball, deltaTime, bricks, brickGrid);
+            }
+        }
+        return count;
     }
 
-    private void processBrickHit(Brick brick) {
+    /**
+     * Run the first {@code count} sweeps on the ForkJoin common pool; this thread takes the
+     * first one itself. Sweeps only read the bricks, so nothing here needs a lock.
+     */
+    private void sweepInParallel(int count) {
+        for (int i = 1; i < count; i++) {
+            ballSweeps[i].fork();
+        }
+        ballSweeps[0].invoke();
+        for (int i = 1; i < count; i++) {
+            ballSweeps[i].join();
+        }
+    }
 
-        if (brick.isDestroyed()) {
+    private boolean intersectsBrick(Ball ball, int brick) {
+        return ball.intersects(bricks.getPosX(brick), bricks.getPosY(brick),
+                bricks.getWidth(brick), bricks.getHeight(brick));
+    }
+
+    private void processBrickHit(int brick) {
+
+        if (!bricks.isLive(brick)) {
             return;
         }
         boolean destroyed;
         if (balls.getFirst().getBuffs().containsKey(Buff.BuffType.Enlarged_Ball)) {
-            destroyed = brick.takeDamage(5);
+            destroyed = bricks.takeDamage(brick, 5);
         } else {
-            destroyed = brick.takeDamage(1);
+            destroyed = bricks.takeDamage(brick, 1);
         }
+        events.brickDamaged(brick, bricks.getHitPoints(brick));
         if (destroyed) {
-            GameObject spawn = brick.onDestroyed();
+            brickGrid.remove(brick);
+            Buff spawn = spawnBuff(brick);
             if (spawn != null) {
                 buffs.add(spawn);
             }
-            SoundManager.playSoundEffect("src/sounds/Brick Sound.wav");
-            score += (brick instanceof NormalBrick) ? pointNormalBricks : pointStrongBricks;
+            SoundManager.playSoundEffect(brickSoundPath);
+            int points = (bricks.getType(brick) == BrickField.BrickType.Normal) ? pointNormalBricks : pointStrongBricks;
+            score += points;
+            events.scoreChanged(points);
+        }
+    }
+
+    /**
+     * Random buff drop for a destroyed brick, drawn from the game's seeded RNG (replays depend on it).
+     */
+    private Buff spawnBuff(int brick) {
+        if (random.nextDouble() < 0.3) {
+            Buff.BuffType buffType = Buff.BuffType.values()[random.nextInt(6)];
+            return new Buff(bricks.getPosX(brick) + (bricks.getWidth(brick) / 2.0) - 5.0,
+                    bricks.getPosY(brick) + bricks.getHeight(brick), 20.0, 20.0,
+                    0.0, 150.0, 150.0, 0.0, 1.0, screenWidth, screenHeight, buffType);
+        } else {
+            return null;
         }
     }
 
@@ -417,10 +637,7 @@ public class GameEngine {
     }
 
     private boolean allBricksDestroyed() {
-        for (Brick brick : bricks) {
-            if (!brick.isDestroyed()) return false;
-        }
-        return true;
+        return bricks.liveCount() <= 0;
     }
 
     public void restart() {
@@ -0,0 +1,22 @@
+/**
+ * GameEvents: what happened inside GameEngine.update, for listeners that keep their own
+ * record of the game (AutosaveJournal). Called on the simulation thread, in the middle of a
+ * tick, so implementations must be cheap and must not touch the engine.
+ */
+public interface GameEvents {
+    /** Listener that ignores everything (the engine's default). */
+    GameEvents NONE = new GameEvents() {};
+
+    /** Brick {@code brick} of the current BrickField took damage; hitPoints 0 = destroyed. */
+    default void brickDamaged(int brick, int hitPoints) {}
+
+    default void scoreChanged(int delta) {}
+
+    default void livesChanged(int delta) {}
+
+    /** The paddle caught a buff; GameEngine.applyBuff(type) follows. */
+    default void buffPickedUp(Buff.BuffType type) {}
+
+    /** A new BrickField is in place (new game, next level, or a loaded save). */
+    default void levelChanged(int level) {}
+}
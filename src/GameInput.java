@@ -0,0 +1,48 @@
+/**
+ * GameInput: commands sent from the UI (EDT) to the simulation thread through GameLoop.
+ * Plain int codes so queuing them does not box anything outside the Integer cache.
+ */
+public final class GameInput {
+    public static final int LEFT_PRESSED = 1;
+    public static final int LEFT_RELEASED = 2;
+    public static final int RIGHT_PRESSED = 3;
+    public static final int RIGHT_RELEASED = 4;
+    public static final int LAUNCH = 5;
+    public static final int TOGGLE_PAUSE = 6;
+    public static final int RESTART = 7;
+
+    // Per-tick input frame: what GameLoop applies before one engine.update (and what replays store)
+    public static final int FRAME_LEFT = 1;
+    public static final int FRAME_RIGHT = 1 << 1;
+    public static final int FRAME_LAUNCH = 1 << 2;
+    public static final int FRAME_RESTART = 1 << 3;
+    public static final int FRAME_PAUSED = 1 << 4;
+
+    private GameInput() {}
+
+    /**
+     * Apply one input frame to the engine. Live play and replay both go through here,
+     * so a recorded frame has exactly the same effect when played back.
+     */
+    public static void applyFrame(GameEngine engine, int frame) {
+        engine.setPaused((frame & FRAME_PAUSED) != 0);
+        if ((frame & FRAME_LAUNCH) != 0) {
+            Ball first = engine.getBalls().isEmpty() ? null : engine.getBalls().get(0);
+            if (first != null && !first.isLaunched()) {
+                first.launch(0.2, -1.0);
+            }
+        }
+        if ((frame & FRAME_RESTART) != 0 && (engine.isGameOver() || engine.isGameWon())) {
+            engine.restart();
+        }
+        boolean left = (frame & FRAME_LEFT) != 0;
+        boolean right = (frame & FRAME_RIGHT) != 0;
+        if (left && !right) {
+            engine.getPaddle().moveLeft();
+        } else if (right && !left) {
+            engine.getPaddle().moveRight();
+        } else {
+            engine.getPaddle().stop();
+        }
+    }
+}
@@ -0,0 +1,385 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * GameLoop: runs GameEngine.update on its own simulation thread.
+ * <p>
+ * Physics uses a fixed timestep: wall time measured with nanoTime goes into an accumulator
+ * and update(1 / tickRate) runs once per whole step in it, so game speed does not depend
+ * on how late the thread wakes up. After a long stall at most MAX_CATCH_UP_STEPS run
+ * back to back and the rest of the backlog is dropped.
+ * <p>
+ * Only this thread touches the engine while the loop runs. The UI talks to it through:
+ * - input(...): key commands (GameInput codes) on a lock-free queue,
+ * - post(...)/submit(...): any other engine work (save, load, restart...) run between ticks,
+ * - latestSnapshot(): the last published RenderSnapshot (lock-free triple buffer).
+ * So a slow tick never blocks painting/input, and slow painting never delays a tick.
+ * <p>
+ * Each tick the queued commands are folded into one GameInput frame before update; that
+ * frame is what a ReplayRecorder stores, and a ReplayPlayer supplies it instead when playing back.
+ * <p>
+ * With startAutosave(...) an AutosaveJournal records live play (not replays) continuously.
+ * A RewindBuffer keeps the last seconds of live play; rewind(...) jumps back into them.
+ */
+public class GameLoop implements Runnable {
+    // -Dbtloop.tickRate=N: physics steps per second of loops built without one
+    public static final int DEFAULT_TICK_RATE = Integer.getInteger("btloop.tickRate", 120);
+    // Above this a step is shorter than the thread can sleep, the loop would only spin
+    public static final int MAX_TICK_RATE = 1000;
+    private static final int MAX_CATCH_UP_STEPS = 8;
+
+    private final int tickRate;
+    private final long tickNanos;
+    private final double tickSeconds;
+    private final FrameStats tickStats = new FrameStats();
+    private volatile long droppedSteps;
+
+    private GameEngine engine;
+    private final SnapshotBuffer snapshots = new SnapshotBuffer();
+    private final ConcurrentLinkedQueue<Integer> inputs = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    private volatile Runnable frameListener;
+
+    private volatile boolean running;
+    private Thread thread;
+    private long tick;
+
+    // Key state, owned by the simulation thread
+    private boolean pressedLeft = false;
+    private boolean pressedRight = false;
+
+    // At most one of these is set (simulation thread only)
+    // Game whose score was submitted (engine + GameEngine.getGameNumber), so each game counts once
+    private GameEngine recordedEngine;
+    private int recordedGame;
+    private volatile ReplayRecorder recorder;
+    private ReplayPlayer replay;
+    private AutosaveJournal autosave;
+    private final RewindBuffer rewindBuffer;
+
+    public GameLoop(GameEngine engine) {
+        this(engine, DEFAULT_TICK_RATE);
+    }
+
+    /**
+     * @param tickRate physics steps per second (e.g. 60, 120, 240), 1..MAX_TICK_RATE
+     */
+    public GameLoop(GameEngine engine, int tickRate) {
+        if (tickRate < 1 || tickRate > MAX_TICK_RATE) {
+            throw new IllegalArgumentException("tickRate must be in 1.." + MAX_TICK_RATE + ": " + tickRate);
+        }
+        this.engine = engine;
+        this.tickRate = tickRate;
+        this.tickNanos = TimeUnit.SECONDS.toNanos(1) / tickRate;
+        this.tickSeconds = 1.0 / tickRate;
+        this.rewindBuffer = new RewindBuffer(tickRate);
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    /** Wake-up intervals of the simulation thread (mean / jitter / max). */
+    public FrameStats getTickStats() {
+        return tickStats;
+    }
+
+    /**
+     * Physics steps thrown away because the loop fell more than MAX_CATCH_UP_STEPS behind.
+     * Written by the simulation thread only, read by the F3 overlay.
+     */
+    public long getDroppedSteps() {
+        return droppedSteps;
+    }
+
+    /**
+     * Publish a first snapshot and start the simulation thread.
+     */
+    public synchronized void start() {
+        if (running) return;
+        publishSnapshot();
+        running = true;
+        thread = new Thread(this, "GameLoop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop the simulation thread and wait for the current tick to finish.
+     */
+    public synchronized void stop() {
+        if (!running) return;
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+        if (autosave != null) {
+            autosave.close(); // last snapshot, so Continue resumes exactly here
+            autosave = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Queue a GameInput command for the next tick. Safe from any thread. */
+    public void input(int command) {
+        inputs.offer(command);
+    }
+
+    /** Run {@code task} on the simulation thread before the next tick. Safe from any thread. */
+    public void post(Runnable task) {
+        if (running) {
+            tasks.offer(task);
+        } else {
+            synchronized (this) {
+                task.run();
+                publishSnapshot();
+            }
+        }
+    }
+
+    /** Like post(...) but returns the task result. */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        post(() -> {
+            try {
+                future.complete(task.call());
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /** Swap the engine being simulated (e.g. after loading into a new GameEngine). */
+    public void setEngine(GameEngine engine) {
+        post(() -> {
+            stopReplay(); // the recorded session no longer matches this engine
+            this.engine = engine;
+            if (autosave != null) autosave.attach(engine);
+        });
+    }
+
+    /**
+     * Autosave live play into {@code dir} (AutosaveJournal): a snapshot at the next tick, then small
+     * journal records every tick something happens.
+     */
+    public void startAutosave(Path dir) {
+        post(() -> {
+            if (autosave == null) autosave = new AutosaveJournal(dir);
+            if (replay == null) autosave.attach(engine);
+        });
+    }
+
+    /**
+     * Put the live game back about {@code millis} earlier (RewindBuffer). Stops a replay
+     * recording, which could not reproduce the jump.
+     *
+     * @return completes with false if there is nothing to rewind to (the game has ended, or a
+     *         replay is playing)
+     */
+    public CompletableFuture<Boolean> rewind(long millis) {
+        return submit(() -> {
+            if (replay != null) return false;
+            stopReplay();
+            return rewindBuffer.restore(engine, millis);
+        });
+    }
+
+    /**
+     * Restart the current level with a fresh seed and record every tick to {@code file}.
+     */
+    public CompletableFuture<Path> startRecording(Path file) {
+        return submit(() -> {
+            stopReplay();
+            recorder = new ReplayRecorder(file, engine, tickRate);
+            return file;
+        });
+    }
+
+    /** Finish the recording. Completes with the file, or null if nothing was recording. */
+    public CompletableFuture<Path> stopRecording() {
+        return submit(() -> {
+            Path file = recorder != null ? recorder.getFile() : null;
+            stopReplay();
+            return file;
+        });
+    }
+
+    public boolean isRecording() {
+        return recorder != null;
+    }
+
+    /**
+     * Play {@code player} on the engine instead of live input, until it ends.
+     */
+    public void play(ReplayPlayer player) {
+        post(() -> {
+            stopReplay();
+            if (autosave != null) autosave.detach(); // a replay is not the player's game
+            player.begin(engine);
+            replay = player;
+        });
+    }
+
+    /**
+     * Called on the simulation thread after each published snapshot (e.g. GameCanvas.present
+     * for active rendering). null to remove.
+     */
+    public void setFrameListener(Runnable frameListener) {
+        this.frameListener = frameListener;
+    }
+
+    /** Latest published snapshot. Render thread only. */
+    public RenderSnapshot latestSnapshot() {
+        return snapshots.latest();
+    }
+
+    @Override
+    public void run() {
+        long previous = System.nanoTime();
+        long accumulator = 0;
+        while (running) {
+            long now = System.nanoTime();
+            long elapsed = now - previous;
+            previous = now;
+            tickStats.record(elapsed);
+            accumulator += elapsed;
+
+            runTasks();
+            int steps = 0;
+            while (accumulator >= tickNanos && steps < MAX_CATCH_UP_STEPS) {
+                step();
+                tick++;
+                accumulator -= tickNanos;
+                steps++;
+            }
+            if (accumulator >= tickNanos) {
+                droppedSteps += accumulator / tickNanos;
+                accumulator %= tickNanos;
+            }
+            if (steps > 0) {
+                publishSnapshot();
+            }
+            Runnable listener = frameListener;
+            if (listener != null) {
+                try {
+                    listener.run();
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+
+            // Sleep until the next whole step is due
+            long wake = now + (tickNanos - accumulator);
+            while (running && (now = System.nanoTime()) < wake) {
+                LockSupport.parkNanos(wake - now);
+            }
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /** One physics step: live input (recorded if needed) or the next replay frame. */
+    private void step() {
+        if (replay != null) {
+            try {
+                if (replay.step(engine)) return;
+            } catch (IOException e) {
+                System.err.println("Replay stopped: " + e.getMessage());
+            }
+            stopReplay();
+            return;
+        }
+        int frame = readInputs();
+        GameInput.applyFrame(engine, frame);
+        engine.update(tickSeconds);
+        recordHighScore();
+        rewindBuffer.tick(engine);
+        if (autosave != null) autosave.tick();
+        if (recorder != null) {
+            try {
+                recorder.tick(frame, engine);
+            } catch (IOException e) {
+                System.err.println("Recording stopped: " + e.getMessage());
+                stopReplay();
+            }
+        }
+    }
+
+    /** Submit the score once per game when a live game ends (saving happens off this thread). */
+    private void recordHighScore() {
+        if (!engine.isGameOver() && !engine.isGameWon()) return;
+        if (recordedEngine == engine && recordedGame == engine.getGameNumber()) return;
+        recordedEngine = engine;
+        recordedGame = engine.getGameNumber();
+        // A win has already stepped past the last level
+        int level = engine.isGameWon() ? engine.getCurrentLevel() - 1 : engine.getCurrentLevel();
+        HighScoreManager.submit(engine.getScore(), level, engine.getSeed());
+    }
+
+    /** Fold the queued key commands into this tick's GameInput frame. */
+    private int readInputs() {
+        int frame = 0;
+        Integer command;
+        while ((command = inputs.poll()) != null) {
+            switch (command) {
+                case GameInput.LEFT_PRESSED -> pressedLeft = true;
+                case GameInput.LEFT_RELEASED -> pressedLeft = false;
+                case GameInput.RIGHT_PRESSED -> pressedRight = true;
+                case GameInput.RIGHT_RELEASED -> pressedRight = false;
+                case GameInput.LAUNCH -> frame |= GameInput.FRAME_LAUNCH;
+                case GameInput.TOGGLE_PAUSE -> engine.togglePaused();
+                case GameInput.RESTART -> frame |= GameInput.FRAME_RESTART;
+                default -> { }
+            }
+        }
+        if (pressedLeft) frame |= GameInput.FRAME_LEFT;
+        if (pressedRight) frame |= GameInput.FRAME_RIGHT;
+        // Pause set from the overlay (post) is captured here too
+        if (engine.isPaused()) frame |= GameInput.FRAME_PAUSED;
+        return frame;
+    }
+
+    /** Close the recording / drop the replay, whichever is active. */
+    private void stopReplay() {
+        if (replay != null && autosave != null) {
+            autosave.attach(engine); // back to live play: snapshot it
+        }
+        replay = null;
+        if (recorder != null) {
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                System.err.println("Could not finish replay " + recorder.getFile() + ": " + e.getMessage());
+            }
+            recorder = null;
+        }
+    }
+
+    private void publishSnapshot() {
+        snapshots.back().capture(engine, tick, tickNanos);
+        snapshots.publish();
+    }
+}
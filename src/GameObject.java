@@ -94,6 +94,16 @@ public abstract class GameObject {
                 && this.posY + this.height > other.posY;
     }
 
+    /**
+     * Same AABB check against raw bounds (used for bricks stored in a BrickField).
+     */
+    public boolean intersects(double x, double y, double w, double h) {
+        return this.posX < x + w
+                && this.posX + this.width > x
+                && this.posY < y + h
+                && this.posY + this.height > y;
+    }
+
     /**
      * Checks if this object fully contains the other object's AABB.
      *
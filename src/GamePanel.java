@@ -1,27 +1,59 @@
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
-import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * GamePanel: UI layer, handles input, ticking and rendering.
+ * GamePanel: UI layer, handles input and rendering.
  * Hiển thị score, lives, high score. Tự động cập nhật highscore khi game kết thúc.
  * Sửa bổ sung constructor nhận GameEngine, dùng cho chọn level từ menu!
+ * <p>
+ * The engine itself runs on GameLoop's simulation thread: keys are forwarded as GameInput
+ * commands, other engine work goes through gameLoop.post/submit, and painting only reads
+ * the latest RenderSnapshot.
  */
 public class GamePanel extends JPanel implements ActionListener, KeyListener {
+    private static final Buff.BuffType[] BUFF_TYPES = Buff.BuffType.values();
+    private static final String REPLAY_DIR = "replays/";
+    public static final String BACKGROUND_TEXTURE = "textures/Background.jpg";
+
     private GameEngine gameEngine;
+    private final GameLoop gameLoop;
     private Renderer renderer;
     private Timer timer;
     private PauseOverLay pauseOverlay;
     private boolean isPaused = false;
-    private Image backgroundTexture;
-
-    private boolean pressedLeft = false;
-    private boolean pressedRight = false;
+    private final FrameStats frameStats = new FrameStats();
+
+    // Paint layer timings + F3 overlay
+    private static final int LAYER_BACKGROUND = 0;
+    private static final int LAYER_BRICKS = 1;
+    private static final int LAYER_BALLS = 2;
+    private static final int LAYER_BUFFS = 3;
+    private static final int LAYER_HUD = 4;
+    private final FrameProfiler paintProfiler =
+            new FrameProfiler("background", "bricks", "paddle+balls", "buffs", "hud");
+    private final ProfilerOverlay profilerOverlay = new ProfilerOverlay();
+    // Sprites scaled once and packed into atlas pages; paddle, balls and buffs are drawn in batches
+    private TextureAtlas atlas = TextureAtlas.forDefaultScreen();
+    private final SpriteBatch batch = new SpriteBatch();
+    private final BrickLayer brickLayer;
+    private final HudLayer hudLayer = new HudLayer();
+    private final Toast toast = new Toast();
+    private final Object renderLock = new Object();
+
+    // Active rendering (-Dbtloop.activeRendering=true): the GameLoop draws into a Canvas
+    // with a BufferStrategy; Swing painting is only used while the pause overlay is up
+    private static final boolean ACTIVE_RENDERING = Boolean.getBoolean("btloop.activeRendering");
+    private GameCanvas canvas;
+    // Continuous autosave (AutosaveJournal), on unless -Dbtloop.autosave=false
+    private static final boolean AUTOSAVE = !"false".equals(System.getProperty("btloop.autosave"));
+    private boolean showProfiler = false;
     // private GameEngine engine; // Không còn cần dùng biến này, vì dùng gameEngine mới truyền vào.
 
     // --- Biến điều khiển hiển thị HighScore ---
@@ -31,6 +63,25 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener {
         return gameEngine;
     }
 
+    public GameLoop getGameLoop() {
+        return gameLoop;
+    }
+
+    /** Intervals between painted frames (mean / jitter / max). */
+    public FrameStats getFrameStats() {
+        return frameStats;
+    }
+
+    /** Show a short message over the game (any thread). */
+    public void showToast(String message) {
+        toast.show(message);
+    }
+
+    /** Timings of the paint layers, recorded every frame. */
+    public FrameProfiler getPaintProfiler() {
+        return paintProfiler;
+    }
+
     /** Constructor dùng cho tiếp tục game hoặc chọn level. */
     public GamePanel(GameEngine engine, int width, int height) {
         setPreferredSize(new Dimension(width, height));
@@ -38,15 +89,16 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener {
         setFocusable(true);
         addKeyListener(this);
 
-        // Load background texture
-        try {
-            backgroundTexture = ImageIO.read(getClass().getClassLoader()
-                    .getResource("textures/Background.jpg"));
-        } catch (IOException e) {
+        // Load background texture (drawn pre-scaled from the atlas)
+        if (TextureCache.get(BACKGROUND_TEXTURE) == null) {
             System.err.println("Không thể load background texture!");
         }
 
+        preloadAtlas();
+
         this.gameEngine = engine; // dùng engine đã truyền vào (có thể set level, tiếp tục...)
+        brickLayer = new BrickLayer(atlas, engine.createBrickGrid());
+        this.gameLoop = new GameLoop(engine);
         renderer = new Renderer();
 
         // Pause Overlay
@@ -56,12 +108,49 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener {
         setLayout(null);
         add(pauseOverlay);
 
-        timer = new Timer(1000 / 60, this);
+        if (ACTIVE_RENDERING) {
+            canvas = new GameCanvas(this::renderFrame, displayRefreshRate());
+            canvas.setBounds(0, 0, width, height);
+            add(canvas); // added after the overlay, so the overlay stays on top
+            gameLoop.setFrameListener(canvas::present);
+        }
+
+        gameLoop.start();
+        if (AUTOSAVE) {
+            gameLoop.startAutosave(AutosaveJournal.DEFAULT_DIR);
+        }
+        // Timer chỉ dùng để repaint; engine chạy trên luồng GameLoop
+        timer = new Timer(Math.max(1, 1000 / displayRefreshRate()), this);
         timer.start();
 
         SoundManager.playBackgroundMusic("src/sounds/Music.wav");
     }
 
+    /** Refresh rate of the default screen, 60 if unknown (or headless). */
+    private static int displayRefreshRate() {
+        try {
+            int rate = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDisplayMode().getRefreshRate();
+            return rate > 0 ? rate : 60;
+        } catch (HeadlessException e) {
+            return 60;
+        }
+    }
+
+    /** Pack the sprites at the sizes GameEngine uses, so the first frames do not scale textures. */
+    private void preloadAtlas() {
+        for (BrickField.BrickType type : BrickField.BrickType.values()) {
+            atlas.get(type.getTexturePath(), 60, 20);
+        }
+        atlas.get(Paddle.NORMAL_TEXTURE, 100, 20);
+        atlas.get(Paddle.ENLARGED_TEXTURE, 200, 20);
+        atlas.get(Ball.NORMAL_TEXTURE, 15, 15);
+        atlas.get(Ball.FIRE_TEXTURE, 15, 15);
+        for (Buff.BuffType type : BUFF_TYPES) {
+            atlas.get(type.getTexturePath(), 20, 20);
+        }
+    }
+
     /** Constructor mặc định cho New Game: dùng level mặc định */
     public GamePanel(int width, int height) {
         this(new GameEngine(width, height), width, height);
@@ -74,225 +163,221 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener {
 
     public void togglePause() {
         isPaused = !isPaused;
-        gameEngine.setPaused(isPaused);
+        boolean paused = isPaused;
+        gameLoop.post(() -> gameEngine.setPaused(paused));
+        // Swing cannot draw the translucent overlay over a heavyweight Canvas: paint passively while paused
+        if (canvas != null) canvas.setVisible(!isPaused);
         pauseOverlay.setVisible(isPaused);
         repaint();
     }
 
     public void hidePauseOverlay() {
         isPaused = false;
-        gameEngine.setPaused(false);
+        gameLoop.post(() -> gameEngine.setPaused(false));
+        if (canvas != null) canvas.setVisible(true);
         pauseOverlay.setVisible(false);
+        requestFocusInWindow();
         repaint();
     }
 
+    /** Stop the simulation thread when the panel leaves the window (e.g. back to menu). */
+    @Override
+    public void removeNotify() {
+        timer.stop();
+        gameLoop.stop();
+        super.removeNotify();
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
+        if (canvas != null && canvas.isVisible()) return; // the canvas is drawing the game
+        renderFrame((Graphics2D) g);
+        // Flush the frame to the screen now instead of whenever the pipeline decides (smoother pacing on X11)
+        Toolkit.getDefaultToolkit().sync();
+    }
 
-        Graphics2D g2d = (Graphics2D) g;
+    /**
+     * Draw one full game frame from the latest snapshot. Runs on the EDT (paintComponent)
+     * or on the GameLoop thread (GameCanvas); the lock keeps the two from overlapping.
+     */
+    private void renderFrame(Graphics2D g2d) {
+        synchronized (renderLock) {
+            renderFrameLocked(g2d);
+        }
+    }
+
+    private void renderFrameLocked(Graphics2D g2d) {
+        long t = System.nanoTime();
+        frameStats.mark(t);
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-        // --- Render background ---
+        // Panel moved to another display: rebuild the atlas for its pixel format
+        GraphicsConfiguration config = getGraphicsConfiguration();
+        if (config != null && config != atlas.getConfiguration()) {
+            atlas = new TextureAtlas(config);
+            brickLayer.setAtlas(atlas);
+            preloadAtlas();
+        }
+
+        // --- Render background (scaled once per panel size, not every frame) ---
+        Image backgroundTexture = atlas.getImage(BACKGROUND_TEXTURE, getWidth(), getHeight());
         if (backgroundTexture != null) {
-            g2d.drawImage(backgroundTexture, 0, 0, getWidth(), getHeight(), null);
+            g2d.drawImage(backgroundTexture, 0, 0, null);
         } else {
             g2d.setColor(Color.RED); // fallback nếu texture không load được
             g2d.fillRect(0, 0, getWidth(), getHeight());
         }
 
+        t = paintProfiler.lap(LAYER_BACKGROUND, t);
+
+        RenderSnapshot snap = gameLoop.latestSnapshot();
+        double alpha = snap.alpha(t);
+
         // Render paddle
-        var paddle = gameEngine.getPaddle();
-        if (paddle.getTexture() != null) {
-            g2d.drawImage(
-                    paddle.getTexture(),
-                    (int) paddle.getPosX(),
-                    (int) paddle.getPosY(),
-                    (int) paddle.getWidth(),
-                    (int) paddle.getHeight(),
-                    null
-            );
-        }
+        batch.add(atlas.get(snap.paddleEnlarged ? Paddle.ENLARGED_TEXTURE : Paddle.NORMAL_TEXTURE,
+                        (int) snap.paddleWidth, (int) snap.paddleHeight),
+                (int) RenderSnapshot.lerp(snap.paddlePrevX, snap.paddleX, alpha),
+                (int) RenderSnapshot.lerp(snap.paddlePrevY, snap.paddleY, alpha));
 
         // Render balls
-        for (var ball : gameEngine.getBalls()) {
-            if (ball.getTexture() != null) {
-                g2d.drawImage(
-                        ball.getTexture(),
-                        (int) ball.getPosX(),
-                        (int) ball.getPosY(),
-                        (int) ball.getWidth(),
-                        (int) ball.getHeight(),
-                        null
-                );
-            }
+        for (int i = 0; i < snap.ballCount; i++) {
+            batch.add(atlas.get(snap.ballFire[i] ? Ball.FIRE_TEXTURE : Ball.NORMAL_TEXTURE,
+                            (int) snap.ballSize[i], (int) snap.ballSize[i]),
+                    (int) RenderSnapshot.lerp(snap.ballPrevX[i], snap.ballX[i], alpha),
+                    (int) RenderSnapshot.lerp(snap.ballPrevY[i], snap.ballY[i], alpha));
         }
+        batch.flush(g2d, atlas);
 
-        // Render bricks (only those not destroyed)
-        for (var brick : gameEngine.getBricks()) {
-            if (!brick.isDestroyed()) {
-                if (brick.getTexture() != null) {
-                    g2d.drawImage(
-                            brick.getTexture(),
-                            (int) brick.getPosX(),
-                            (int) brick.getPosY(),
-                            (int) brick.getWidth(),
-                            (int) brick.getHeight(),
-                            null
-                    );
-                }
-            }
-        }
+        t = paintProfiler.lap(LAYER_BALLS, t);
+
+        // Render bricks: one blit of the cached layer (only destroyed bricks are redrawn into it)
+        brickLayer.draw(g2d, snap, getWidth(), getHeight(), config);
+
+        t = paintProfiler.lap(LAYER_BRICKS, t);
 
         // Render buffs/powerballs
-        for (var powerball : gameEngine.getBuffs()) {
-            if (powerball instanceof Buff buff) {
-                Image tex = buff.getBuffType().getTexture();
-                if (tex != null) {
-                    g.drawImage(tex,
-                            (int) buff.getPosX(),
-                            (int) buff.getPosY(),
-                            (int) buff.getWidth(),
-                            (int) buff.getHeight(),
-                            null);
-                }
-            }
+        for (int i = 0; i < snap.buffCount; i++) {
+            batch.add(atlas.get(BUFF_TYPES[snap.buffType[i]].getTexturePath(),
+                            (int) snap.buffWidth[i], (int) snap.buffHeight[i]),
+                    (int) RenderSnapshot.lerp(snap.buffPrevX[i], snap.buffX[i], alpha),
+                    (int) RenderSnapshot.lerp(snap.buffPrevY[i], snap.buffY[i], alpha));
         }
+        batch.flush(g2d, atlas);
 
-        renderUI(g);
-    }
+        t = paintProfiler.lap(LAYER_BUFFS, t);
 
-    // --- Sửa UI: thêm HighScore ở góc trên bên phải ---
-    private void renderUI(Graphics g) {
-        g.setColor(Color.WHITE);
-        g.setFont(new Font("Arial", Font.BOLD, 16));
-
-        g.drawString("Score: " + gameEngine.getScore(), 10, 20);
-        g.drawString("Lives: " + gameEngine.getLives(), 10, 40);
-
-        // Vẽ HighScore góc phải cùng font, màu
-        if (showHighScore) {
-            int highScore = HighScoreManager.getHighScore();
-            String highScoreStr = "High Score: " + highScore;
-            int strWidth = g.getFontMetrics().stringWidth(highScoreStr);
-            int x = getWidth() - strWidth - 18;
-            g.drawString(highScoreStr, x, 20);
-        }
+        renderUI(g2d, snap);
+        toast.draw(g2d, getWidth(), getHeight());
+        paintProfiler.lap(LAYER_HUD, t);
+        paintProfiler.endFrame();
 
-        int lineHeight = 50;
-        if (gameEngine.isGameOver()) {
-            g.setFont(new Font("Arial", Font.BOLD, 48));
-            String gameOver = "Game Over";
-            int textWidth = g.getFontMetrics().stringWidth(gameOver);
-            g.drawString(gameOver, (getWidth() - textWidth) / 2, getHeight() / 2);
-
-            String restartGame = "Press R to restart";
-            int textWidth2 = g.getFontMetrics().stringWidth(restartGame);
-            g.drawString(restartGame, (getWidth() - textWidth2) / 2, getHeight() / 2 + lineHeight);
-
-            // --- Update high score nếu cần ---
-            HighScoreManager.checkAndSetHighScore(gameEngine.getScore());
-        } else if (gameEngine.isGameWon()) {
-            g.setFont(new Font("Arial", Font.BOLD, 48));
-            String gameWon = "Game Won";
-            int textWidth = g.getFontMetrics().stringWidth(gameWon);
-            g.drawString(gameWon, (getWidth() - textWidth) / 2, getHeight() / 2);
-
-            String restartGame = "Press R to restart";
-            int textWidth2 = g.getFontMetrics().stringWidth(restartGame);
-            g.drawString(restartGame, (getWidth() - textWidth2) / 2, getHeight() / 2 + lineHeight);
-
-            HighScoreManager.checkAndSetHighScore(gameEngine.getScore());
+        if (showProfiler) {
+            profilerOverlay.draw(g2d, gameEngine.getProfiler(), paintProfiler, frameStats, gameLoop);
         }
     }
 
+    // --- UI: Score, Lives, HighScore góc phải; cached in hudLayer, redrawn only on change ---
+    private void renderUI(Graphics2D g, RenderSnapshot snap) {
+        hudLayer.draw(g, snap, showHighScore ? HighScoreManager.getHighScore() : -1, getWidth(), getHeight());
+    }
+
     /** Dùng cho continue hoặc các trường hợp cần đồng bộ instance engine */
     public void setEngine(GameEngine engine) {
         this.gameEngine = engine;
+        gameLoop.setEngine(engine);
     }
 
     @Override
     public void actionPerformed(java.awt.event.ActionEvent e) {
-        if (pressedLeft && !pressedRight) {
-            gameEngine.getPaddle().moveLeft();
-        } else if (pressedRight && !pressedLeft) {
-            gameEngine.getPaddle().moveRight();
-        } else {
-            gameEngine.getPaddle().stop();
+        if (canvas == null || !canvas.isVisible()) {
+            repaint();
         }
-        gameEngine.update(1.0 / 60.0);
-        repaint();
     }
 
     @Override
     public void keyPressed(KeyEvent e) {
         int key = e.getKeyCode();
+        int width = getWidth();
+        int height = getHeight();
         if (key == KeyEvent.VK_SPACE) {
-            if (!gameEngine.getBalls().get(0).isLaunched()) {
-                gameEngine.getBalls().get(0).launch(0.2, -1.0);
-            }
+            gameLoop.input(GameInput.LAUNCH);
         }
         if (key == KeyEvent.VK_ESCAPE) {
             togglePause();
         }
         if (key == KeyEvent.VK_LEFT) {
-            pressedLeft = true;
+            gameLoop.input(GameInput.LEFT_PRESSED);
         }
         if (key == KeyEvent.VK_RIGHT) {
-            pressedRight = true;
+            gameLoop.input(GameInput.RIGHT_PRESSED);
         }
         if (key == KeyEvent.VK_P) {
-            gameEngine.togglePaused();
+            gameLoop.input(GameInput.TOGGLE_PAUSE);
         }
         if (key == KeyEvent.VK_R) {
-            if (gameEngine.isGameOver() || gameEngine.isGameWon()) {
-                gameEngine.restart();
-            }
+            gameLoop.input(GameInput.RESTART);
         }
-        // Quick Save - F5
-        else if (key == KeyEvent.VK_F5) {
-            if (SaveManager.quickSave(gameEngine)) {
-                System.out.println("✓ Quick Save successful!");
+        // Profiler overlay - F3
+        else if (key == KeyEvent.VK_F3) {
+            showProfiler = !showProfiler;
+        }
+        // Record a replay - F8 (start: restarts the level with a new seed; again: stop)
+        else if (key == KeyEvent.VK_F8) {
+            if (gameLoop.isRecording()) {
+                gameLoop.stopRecording().thenAccept(file -> System.out.println("✓ Replay saved: " + file));
             } else {
-                System.out.println("✗ Quick Save failed!");
+                Path file = Paths.get(REPLAY_DIR, "replay_" + System.currentTimeMillis() + ".btr");
+                gameLoop.startRecording(file).whenComplete((f, error) -> System.out.println(
+                        error == null ? "● Recording replay to " + f : "✗ Could not start replay: " + error.getMessage()));
             }
         }
+        // Rewind - Backspace: 1 s back, Shift+Backspace: 100 ms back (repeat to go further)
+        else if (key == KeyEvent.VK_BACK_SPACE) {
+            long millis = e.isShiftDown() ? RewindBuffer.INTERVAL_MILLIS : 1000;
+            gameLoop.rewind(millis).thenAccept(rewound -> {
+                if (!rewound) toast.show("Nothing to rewind");
+            });
+        }
+        // Quick Save - F5 (snapshot between ticks, written in the background)
+        else if (key == KeyEvent.VK_F5) {
+            report(gameLoop.submit(() -> SaveManager.quickSaveAsync(gameEngine)).thenCompose(saved -> saved),
+                    "✓ Quick Save successful!", "✗ Quick Save failed!");
+        }
         // Quick Load - F9
         else if (key == KeyEvent.VK_F9) {
-            if (SaveManager.quickLoad(gameEngine, getWidth(), getHeight())) {
-                System.out.println("✓ Quick Load successful!");
-            } else {
-                System.out.println("✗ Quick Load failed!");
-            }
+            report(gameLoop.submit(() -> SaveManager.quickLoad(gameEngine, width, height)),
+                    "✓ Quick Load successful!", "✗ Quick Load failed!");
         }
         // Save to slot 1-9 - Ctrl+1 through Ctrl+9
         else if (e.isControlDown() && key >= KeyEvent.VK_1 && key <= KeyEvent.VK_9) {
             int slot = key - KeyEvent.VK_0;
-            if (SaveManager.saveToSlot(slot, gameEngine)) {
-                System.out.println("✓ Saved to slot " + slot);
-            } else {
-                System.out.println("✗ Failed to save to slot " + slot);
-            }
+            report(gameLoop.submit(() -> SaveManager.saveToSlotAsync(slot, gameEngine)).thenCompose(saved -> saved),
+                    "✓ Saved to slot " + slot, "✗ Failed to save to slot " + slot);
         }
         // Load from slot 1-9 - Alt+1 through Alt+9
         else if (e.isAltDown() && key >= KeyEvent.VK_1 && key <= KeyEvent.VK_9) {
             int slot = key - KeyEvent.VK_0;
-            if (SaveManager.loadFromSlot(slot, gameEngine, getWidth(), getHeight())) {
-                System.out.println("✓ Loaded from slot " + slot);
-            } else {
-                System.out.println("✗ Failed to load from slot " + slot);
-            }
+            report(gameLoop.submit(() -> SaveManager.loadFromSlot(slot, gameEngine, width, height)),
+                    "✓ Loaded from slot " + slot, "✗ Failed to load from slot " + slot);
         }
     }
 
+    private void report(CompletableFuture<Boolean> result, String ok, String failed) {
+        result.thenAccept(success -> {
+            System.out.println(success ? ok : failed);
+            toast.show(success ? ok : failed);
+        });
+    }
+
     @Override
     public void keyReleased(KeyEvent e) {
         int key = e.getKeyCode();
         if (key == KeyEvent.VK_LEFT) {
-            pressedLeft = false;
+            gameLoop.input(GameInput.LEFT_RELEASED);
         }
         if (key == KeyEvent.VK_RIGHT) {
-            pressedRight = false;
+            gameLoop.input(GameInput.RIGHT_RELEASED);
         }
     }
 
@@ -1,47 +1,296 @@
-import java.io.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
 
+/**
+ * HighScoreManager: top TOP_N scores per level (name, score, level, time, replay seed).
+ * <p>
+ * The tables live in memory; readers get an immutable snapshot through a volatile field,
+ * so getHighScore() / getTopScores() never lock or touch the disk and are safe on the EDT
+ * and in painting. submit() updates memory and leaves the file work to the "HighScoreWriter"
+ * thread (write-behind).
+ * <p>
+ * On disk (saves/highscores.log) the table is an append-only log of CRC-checked records:
+ * a new score is one append. Loading runs on the writer thread at startup; it reads the
+ * log (a torn last record is dropped), keeps the top TOP_N per level and rewrites the log
+ * with just those (temp file + atomic rename). Every file operation holds an exclusive
+ * lock on saves/highscores.lock, so two running games never interleave their writes.
+ * The single score of the older saves/highscore.dat is imported (as level 0) when there is
+ * no log yet.
+ */
 public class HighScoreManager {
-    private static final String SAVE_PATH = "saves/highscore.dat";
-    private static int highScore = 0;
+    public static final int TOP_N = 10;
 
-    static {
-        load();
+    /** One leaderboard line. */
+    public static final class Entry {
+        public final String name;
+        public final int score;
+        public final int level;
+        public final long time;
+        public final long seed;
+
+        public Entry(String name, int score, int level, long time, long seed) {
+            this.name = name;
+            this.score = score;
+            this.level = level;
+            this.time = time;
+            this.seed = seed;
+        }
+    }
+
+    private static final Path SAVE_DIR = Paths.get("saves");
+    private static final Path LOG_FILE = SAVE_DIR.resolve("highscores.log");
+    private static final Path LOCK_FILE = SAVE_DIR.resolve("highscores.lock");
+    private static final Path LEGACY_FILE = SAVE_DIR.resolve("highscore.dat");
+
+    private static final int MAGIC = 0x42544853; // "BTHS"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 2;
+    private static final int MAX_RECORD = 1024;
+
+    // Best first; the earlier of two equal scores ranks higher
+    private static final Comparator<Entry> RANKING =
+            Comparator.comparingInt((Entry e) -> -e.score).thenComparingLong(e -> e.time);
+
+    // Guarded by itself; copied into 'published' after every change
+    private static final TreeMap<Integer, ArrayList<Entry>> tables = new TreeMap<>();
+    private static volatile Map<Integer, List<Entry>> published = Map.of();
+    private static volatile int highScore = 0;
+
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "HighScoreWriter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // First task of the writer: every append queued later runs after it
+    private static final CompletableFuture<Void> loaded = CompletableFuture.runAsync(HighScoreManager::load, writer);
+
+    private HighScoreManager() {}
+
+    /** Completes once the log has been read (e.g. to show the leaderboard). Never blocks. */
+    public static CompletableFuture<Void> whenLoaded() {
+        return loaded;
     }
 
+    /** Best score over every level. */
     public static int getHighScore() {
         return highScore;
     }
 
-    public static void checkAndSetHighScore(int score) {
-        if (score > highScore) {
-            highScore = score;
-            save();
+    /** Top scores of {@code level}, best first (empty if none). */
+    public static List<Entry> getTopScores(int level) {
+        return published.getOrDefault(level, List.of());
+    }
+
+    /** Levels that have at least one score, ascending. */
+    public static Set<Integer> getLevels() {
+        return published.keySet();
+    }
+
+    /** Name stored with new scores: -Dbtloop.player, else the OS user name. */
+    public static String getPlayerName() {
+        return System.getProperty("btloop.player", System.getProperty("user.name", "Player"));
+    }
+
+    /**
+     * Record a finished game. Only memory is touched here; a score that makes the level's
+     * top TOP_N is appended to the log on the writer thread.
+     *
+     * @return true if the score entered the leaderboard
+     */
+    public static boolean submit(int score, int level, long seed) {
+        if (score <= 0) return false;
+        Entry entry = new Entry(getPlayerName(), score, level, System.currentTimeMillis(), seed);
+        synchronized (tables) {
+            if (!insert(entry)) return false;
+            publish();
+        }
+        writer.execute(() -> {
+            try {
+                append(entry);
+            } catch (IOException e) {
+                System.err.println("Không thể lưu high score: " + e.getMessage());
+            }
+        });
+        return true;
+    }
+
+    /** Forget every score (memory now, the log on the writer thread). */
+    public static void reset() {
+        synchronized (tables) {
+            tables.clear();
+            publish();
+        }
+        writer.execute(() -> {
+            try {
+                withLock(() -> SaveWriter.writeAtomically(LOG_FILE, header()));
+            } catch (IOException e) {
+                System.err.println("Không thể xoá high score: " + e.getMessage());
+            }
+        });
+    }
+
+    // ==================== Memory ====================
+
+    /** Add to the level's table if it ranks; caller holds the tables lock. */
+    private static boolean insert(Entry entry) {
+        ArrayList<Entry> table = tables.computeIfAbsent(entry.level, level -> new ArrayList<>());
+        int rank = Collections.binarySearch(table, entry, RANKING);
+        if (rank < 0) rank = -rank - 1;
+        if (rank >= TOP_N) return false;
+        table.add(rank, entry);
+        if (table.size() > TOP_N) table.remove(TOP_N);
+        return true;
+    }
+
+    private static void publish() {
+        Map<Integer, List<Entry>> snapshot = new TreeMap<>();
+        int best = 0;
+        for (Map.Entry<Integer, ArrayList<Entry>> table : tables.entrySet()) {
+            if (table.getValue().isEmpty()) continue;
+            snapshot.put(table.getKey(), List.copyOf(table.getValue()));
+            best = Math.max(best, table.getValue().getFirst().score);
         }
+        published = Collections.unmodifiableMap(snapshot);
+        highScore = best;
     }
 
-    public static void save() {
-        try (DataOutputStream dos = new DataOutputStream(new FileOutputStream(SAVE_PATH))) {
-            dos.writeInt(highScore);
+    // ==================== Log (writer thread) ====================
+
+    /** Read the log (or import the legacy file), merge it into memory and compact it, under the lock. */
+    private static void load() {
+        try {
+            withLock(HighScoreManager::loadLocked);
         } catch (IOException e) {
-            System.err.println("Không thể lưu high score!");
+            System.err.println("Không thể đọc high score: " + e.getMessage());
+        }
+    }
+
+    /** load() with the lock held. */
+    private static void loadLocked() throws IOException {
+        List<Entry> entries = Files.exists(LOG_FILE) ? readLog() : readLegacy();
+        // Compacted from the file alone: scores submitted before the load are still queued as appends
+        TreeMap<Integer, ArrayList<Entry>> kept = new TreeMap<>();
+        for (Entry entry : entries) {
+            kept.computeIfAbsent(entry.level, level -> new ArrayList<>()).add(entry);
+        }
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        log.write(header().array());
+        for (ArrayList<Entry> table : kept.values()) {
+            table.sort(RANKING);
+            for (int i = 0; i < Math.min(TOP_N, table.size()); i++) {
+                log.write(record(table.get(i)).array());
+            }
+        }
+        SaveWriter.writeAtomically(LOG_FILE, ByteBuffer.wrap(log.toByteArray()));
+
+        synchronized (tables) {
+            for (Entry entry : entries) insert(entry);
+            publish();
         }
     }
 
-    public static void load() {
-        File file = new File(SAVE_PATH);
-        if (!file.exists()) {
-            highScore = 0;
-            return;
+    /** Every complete, CRC-valid record of the log; stops at the first torn one. */
+    private static List<Entry> readLog() throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(LOG_FILE));
+        List<Entry> entries = new ArrayList<>();
+        if (in.remaining() < HEADER_SIZE || in.getInt() != MAGIC || in.getShort() != VERSION) {
+            System.err.println("High score log " + LOG_FILE + " is not readable, starting over");
+            return entries;
+        }
+        while (in.remaining() >= 4) {
+            int length = in.getInt();
+            if (length <= 0 || length > MAX_RECORD || in.remaining() < length + 4) break;
+            ByteBuffer payload = in.slice(in.position(), length);
+            in.position(in.position() + length);
+            if (in.getInt() != crc(payload)) break;
+            try (DataInputStream data = new DataInputStream(new ByteArrayInputStream(
+                    payload.array(), payload.arrayOffset(), length))) {
+                entries.add(new Entry(data.readUTF(), data.readInt(), data.readInt(), data.readLong(), data.readLong()));
+            }
         }
-        try (DataInputStream dis = new DataInputStream(new FileInputStream(file))) {
-            highScore = dis.readInt();
+        return entries;
+    }
+
+    /** The one score of saves/highscore.dat, if any. */
+    private static List<Entry> readLegacy() {
+        List<Entry> entries = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(LEGACY_FILE))) {
+            int score = in.readInt();
+            if (score > 0) {
+                entries.add(new Entry(getPlayerName(), score, 0,
+                        Files.getLastModifiedTime(LEGACY_FILE).toMillis(), 0));
+            }
         } catch (IOException e) {
-            highScore = 0;
+            // no older high score
         }
+        return entries;
     }
 
-    public static void reset() {
-        highScore = 0;
-        save();
+    private static void append(Entry entry) throws IOException {
+        withLock(() -> {
+            try (FileChannel channel = FileChannel.open(LOG_FILE, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer record = record(entry);
+                if (channel.size() == 0) {
+                    ByteBuffer header = header();
+                    while (header.hasRemaining()) channel.write(header);
+                }
+                while (record.hasRemaining()) channel.write(record);
+                channel.force(false);
+            }
+        });
+    }
+
+    /**
+     * Run {@code task} holding the exclusive lock shared with other game instances, on a
+     * separate file since the log itself is replaced by rename when compacted.
+     */
+    private static void withLock(SaveWriter.IoTask task) throws IOException {
+        Files.createDirectories(SAVE_DIR);
+        try (FileChannel channel = FileChannel.open(LOCK_FILE, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.lock(); // released when the channel is closed
+            task.run();
+        }
+    }
+
+    private static ByteBuffer header() {
+        return ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putShort(VERSION).flip();
+    }
+
+    /** int length, payload (name, score, level, time, seed), int CRC32 of the payload. */
+    private static ByteBuffer record(Entry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            String name = entry.name.length() > 64 ? entry.name.substring(0, 64) : entry.name;
+            out.writeUTF(name);
+            out.writeInt(entry.score);
+            out.writeInt(entry.level);
+            out.writeLong(entry.time);
+            out.writeLong(entry.seed);
+        }
+        ByteBuffer payload = ByteBuffer.wrap(bytes.toByteArray());
+        return ByteBuffer.allocate(4 + payload.remaining() + 4)
+                .putInt(payload.remaining()).put(payload.duplicate()).putInt(crc(payload)).flip();
+    }
+
+    private static int crc(ByteBuffer data) {
+        CRC32 crc = new CRC32();
+        crc.update(data.duplicate());
+        return (int) crc.getValue();
     }
 }
@@ -0,0 +1,121 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * HudLayer: the HUD (score, lives, high score, Game Over / Game Won banner) cached as images.
+ * <p>
+ * Text is laid out and drawn only when something shown changes (score, lives, high score,
+ * game state or panel size); every other frame the HUD is one or two drawImage calls.
+ * Fonts are created once. EDT / render thread only.
+ */
+public class HudLayer {
+    private static final Font HUD_FONT = new Font("Arial", Font.BOLD, 16);
+    private static final Font BANNER_FONT = new Font("Arial", Font.BOLD, 48);
+    private static final int BAR_HEIGHT = 48;
+    private static final int BANNER_LINE_HEIGHT = 50;
+
+    private static final int STATE_PLAYING = 0;
+    private static final int STATE_OVER = 1;
+    private static final int STATE_WON = 2;
+
+    private BufferedImage bar;
+    private BufferedImage banner;
+    private int bannerY;
+
+    // What the cached images show; -1 = nothing cached yet
+    private int score = -1;
+    private int lives = -1;
+    private int highScore = -1;
+    private int state = -1;
+    private int width = -1;
+    private int height = -1;
+    private int rebuilds;
+
+    /**
+     * Draw the HUD for {@code snap}.
+     *
+     * @param highScore high score to show on the right, or -1 to hide it
+     */
+    public void draw(Graphics2D g, RenderSnapshot snap, int highScore, int width, int height) {
+        if (width <= 0 || height <= 0) return;
+        int state = snap.gameOver ? STATE_OVER : snap.gameWon ? STATE_WON : STATE_PLAYING;
+        if (snap.score != score || snap.lives != lives || highScore != this.highScore
+                || state != this.state || width != this.width || height != this.height) {
+            rebuild(snap.score, snap.lives, highScore, state, width, height);
+        }
+        g.drawImage(bar, 0, 0, null);
+        if (state != STATE_PLAYING) {
+            g.drawImage(banner, 0, bannerY, null);
+        }
+    }
+
+    /** Number of times the HUD text was laid out again. */
+    public int getRebuilds() {
+        return rebuilds;
+    }
+
+    private void rebuild(int score, int lives, int highScore, int state, int width, int height) {
+        boolean resized = width != this.width || height != this.height;
+        this.score = score;
+        this.lives = lives;
+        this.highScore = highScore;
+        this.width = width;
+        this.height = height;
+        rebuilds++;
+
+        if (bar == null || bar.getWidth() != width) {
+            bar = new BufferedImage(width, BAR_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        }
+        Graphics2D g = begin(bar);
+        try {
+            g.setFont(HUD_FONT);
+            g.drawString("Score: " + score, 10, 20);
+            g.drawString("Lives: " + lives, 10, 40);
+            // HighScore góc phải cùng font, màu
+            if (highScore >= 0) {
+                String highScoreStr = "High Score: " + highScore;
+                int strWidth = g.getFontMetrics().stringWidth(highScoreStr);
+                g.drawString(highScoreStr, width - strWidth - 18, 20);
+            }
+        } finally {
+            g.dispose();
+        }
+
+        if (state != STATE_PLAYING && (state != this.state || banner == null || resized)) {
+            drawBanner(state == STATE_OVER ? "Game Over" : "Game Won", width, height);
+        }
+        this.state = state;
+    }
+
+    private void drawBanner(String title, int width, int height) {
+        Graphics2D probe = bar.createGraphics();
+        FontMetrics fm = probe.getFontMetrics(BANNER_FONT);
+        probe.dispose();
+        int bannerHeight = fm.getAscent() + BANNER_LINE_HEIGHT + fm.getDescent();
+        if (banner == null || banner.getWidth() != width || banner.getHeight() != bannerHeight) {
+            banner = new BufferedImage(width, bannerHeight, BufferedImage.TYPE_INT_ARGB);
+        }
+        // Same baselines as before: title at height / 2, hint one line below
+        bannerY = height / 2 - fm.getAscent();
+        Graphics2D g = begin(banner);
+        try {
+            g.setFont(BANNER_FONT);
+            g.drawString(title, (width - fm.stringWidth(title)) / 2, fm.getAscent());
+            String restartGame = "Press R to restart";
+            g.drawString(restartGame, (width - fm.stringWidth(restartGame)) / 2, fm.getAscent() + BANNER_LINE_HEIGHT);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    /** Clear {@code image} and return a white-text Graphics for it. */
+    private static Graphics2D begin(BufferedImage image) {
+        Graphics2D g = image.createGraphics();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g.setComposite(AlphaComposite.SrcOver);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setColor(Color.WHITE);
+        return g;
+    }
+}
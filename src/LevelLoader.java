@@ -6,6 +6,9 @@ import java.util.List;
 import java.util.Locale;
 
 public class LevelLoader {
+    // -Dbtloop.textureStats=true: print TextureCache hits/misses after each level load
+    private static final boolean TEXTURE_STATS = Boolean.getBoolean("btloop.textureStats");
+
     private int brickWidth;
     private int brickHeight;
     private int brickPadding;
@@ -60,6 +63,9 @@ public class LevelLoader {
                 }
             }
         }
+        if (TEXTURE_STATS) {
+            System.out.println(TextureCache.stats());
+        }
         return bricks;
     }
 
@@ -80,6 +86,13 @@ public class LevelLoader {
         return factory.createBrick(x,y,brickWidth,brickHeight,screenWidth,screenHeight);
     }
 
+    /**
+     * Create an empty BrickGrid matching the row/column layout used by this loader.
+     */
+    public BrickGrid createGrid() {
+        return new BrickGrid(offsetX, offsetY, brickWidth + brickPadding, brickHeight + brickPadding);
+    }
+
    public static String getLevelDir(){
         return "src/levels/";
    }
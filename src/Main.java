@@ -2,6 +2,7 @@ import javax.swing.*;
 
 public class Main {
     public static void main(String[] args) {
+        HighScoreManager.whenLoaded(); // read + compact the leaderboard in the background while the menu opens
         SwingUtilities.invokeLater(() -> {
             int width = 800;
             int height = 600;
@@ -4,6 +4,8 @@ import java.awt.event.ActionEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.regex.*;
 
 public class MainMenuPanel extends JPanel {
@@ -118,6 +120,7 @@ public class MainMenuPanel extends JPanel {
 
         ModernButton newGameButton     = new ModernButton("New Game");
         ModernButton continueButton    = new ModernButton("Continue");
+        ModernButton loadButton        = new ModernButton("Load Game");
         ModernButton highScoreButton   = new ModernButton("High Score");
         ModernButton exitButton        = new ModernButton("Exit");
 
@@ -126,8 +129,26 @@ public class MainMenuPanel extends JPanel {
         buttonBox.setAlignmentX(Component.CENTER_ALIGNMENT);
         buttonBox.add(newGameButton);
         buttonBox.add(Box.createVerticalStrut(15));
-        if (SaveManager.saveExists("saves/quicksave.xml")) {
-            buttonBox.add(continueButton);
+        // Continue: shown at once for a quick save; an autosave is looked up off the EDT
+        Component continueStrut = Box.createVerticalStrut(15);
+        buttonBox.add(continueButton);
+        buttonBox.add(continueStrut);
+        boolean quickSave = SaveManager.quickSaveExists();
+        continueButton.setVisible(quickSave);
+        continueStrut.setVisible(quickSave);
+        if (!quickSave) {
+            AutosaveJournal.hasSession(AutosaveJournal.DEFAULT_DIR).thenAccept(found -> {
+                if (!found) return;
+                SwingUtilities.invokeLater(() -> {
+                    continueButton.setVisible(true);
+                    continueStrut.setVisible(true);
+                    buttonBox.revalidate();
+                    buttonBox.repaint();
+                });
+            });
+        }
+        if (!SaveManager.listSlots().isEmpty()) {
+            buttonBox.add(loadButton);
             buttonBox.add(Box.createVerticalStrut(15));
         }
         buttonBox.add(highScoreButton);
@@ -161,30 +182,80 @@ public class MainMenuPanel extends JPanel {
 
         continueButton.addActionListener((ActionEvent e) -> {
             GameEngine engine = new GameEngine(width, height);
-            boolean loaded = SaveManager.quickLoad(engine, width, height);
+            // Autosave (snapshot + journal) is the most recent state; the quick save is the fallback
+            boolean loaded = AutosaveJournal.recover(AutosaveJournal.DEFAULT_DIR, engine, width, height)
+                    || SaveManager.quickLoad(engine, width, height);
             if (loaded) {
-                engine.setPaused(false);
-                engine.setGameOver(false);
-                engine.setGameWon(false);
-
-                GamePanel gamePanel = new GamePanel(engine, width, height);
-                gamePanel.setShowHighScore(true);
-                gamePanel.hidePauseOverlay();
-                frame.setContentPane(gamePanel);
-                frame.revalidate();
-                frame.repaint();
-                gamePanel.requestFocusInWindow();
+                resumeGame(frame, engine, width, height);
             } else {
                 JOptionPane.showMessageDialog(this, "No saved game found.", "Error", JOptionPane.WARNING_MESSAGE);
             }
         });
 
-        highScoreButton.addActionListener((ActionEvent e) -> {
-            int highScore = HighScoreManager.getHighScore();
-            String msg = "High Score: " + highScore;
-            JOptionPane.showMessageDialog(this, msg, "High Score", JOptionPane.INFORMATION_MESSAGE);
+        // Slot browser: thumbnails + stats of every slot, click to load
+        loadButton.addActionListener((ActionEvent e) -> {
+            SlotBrowserPanel browser = new SlotBrowserPanel(width, height, slot -> {
+                GameEngine engine = new GameEngine(width, height);
+                boolean loaded = slot == SaveContainer.QUICK_SAVE_SLOT
+                        ? SaveManager.quickLoad(engine, width, height)
+                        : SaveManager.loadFromSlot(slot, engine, width, height);
+                if (loaded) {
+                    resumeGame(frame, engine, width, height);
+                } else {
+                    JOptionPane.showMessageDialog(frame, "Could not load this save.", "Error", JOptionPane.WARNING_MESSAGE);
+                }
+            }, () -> {
+                frame.setContentPane(new MainMenuPanel(frame, width, height));
+                frame.revalidate();
+                frame.repaint();
+            });
+            frame.setContentPane(browser);
+            frame.revalidate();
+            frame.repaint();
         });
 
+        // Bảng xếp hạng: đọc từ bộ nhớ, chỉ chờ (không chặn EDT) lần load đầu tiên
+        highScoreButton.addActionListener((ActionEvent e) -> HighScoreManager.whenLoaded().thenRun(() ->
+                SwingUtilities.invokeLater(this::showLeaderboard)));
+
         exitButton.addActionListener(e -> System.exit(0));
     }
+
+    /** Top scores of every level, one table per level. */
+    private void showLeaderboard() {
+        StringBuilder text = new StringBuilder();
+        SimpleDateFormat date = new SimpleDateFormat("dd/MM/yyyy");
+        for (int level : HighScoreManager.getLevels()) {
+            text.append(level > 0 ? "Level " + level : "Earlier games").append('\n');
+            int rank = 1;
+            for (HighScoreManager.Entry entry : HighScoreManager.getTopScores(level)) {
+                text.append(String.format("%2d. %-16s %8d  %s%n", rank++, entry.name, entry.score,
+                        date.format(new Date(entry.time))));
+            }
+            text.append('\n');
+        }
+        if (text.length() == 0) text.append("No high scores yet.");
+
+        JTextArea table = new JTextArea(text.toString().stripTrailing());
+        table.setEditable(false);
+        table.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 14));
+        JScrollPane scroll = new JScrollPane(table);
+        scroll.setPreferredSize(new Dimension(460, 320));
+        JOptionPane.showMessageDialog(this, scroll, "High Scores", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    /** Start playing a loaded game (Continue / slot browser). */
+    private static void resumeGame(JFrame frame, GameEngine engine, int width, int height) {
+        engine.setPaused(false);
+        engine.setGameOver(false);
+        engine.setGameWon(false);
+
+        GamePanel gamePanel = new GamePanel(engine, width, height);
+        gamePanel.setShowHighScore(true);
+        gamePanel.hidePauseOverlay();
+        frame.setContentPane(gamePanel);
+        frame.revalidate();
+        frame.repaint();
+        gamePanel.requestFocusInWindow();
+    }
 }
@@ -5,10 +5,33 @@ public abstract class MovableObject extends GameObject {
     protected double velX;
     protected double velY;
 
+    // Vị trí ở tick trước, dùng để nội suy khi vẽ giữa hai tick
+    protected double prevPosX;
+    protected double prevPosY;
+
     public MovableObject(double posX, double posY, double width, double height, double velX, double velY) {
         super(posX, posY, width, height);
         this.velX = velX;
         this.velY = velY;
+        this.prevPosX = posX;
+        this.prevPosY = posY;
+    }
+
+    public double getPrevPosX() {
+        return prevPosX;
+    }
+
+    public double getPrevPosY() {
+        return prevPosY;
+    }
+
+    /**
+     * Remember the current position as "previous tick". GameEngine calls this at the start of
+     * every tick so the renderer can draw between the previous and the current position.
+     */
+    public void savePreviousPosition() {
+        this.prevPosX = posX;
+        this.prevPosY = posY;
     }
 
     public double getVelX() {
@@ -1,8 +1,5 @@
 import java.util.ArrayList;
 import java.awt.image.BufferedImage;
-import javax.imageio.ImageIO;
-import java.io.IOException;
-import java.net.URL;
 
 public class NormalBrick extends Brick {
     private BufferedImage texture;
@@ -18,22 +15,7 @@ public class NormalBrick extends Brick {
      */
     public NormalBrick(double posX, double posY, double width, double height, int screenWidth, int screenHeight, int hitPoints) {
         super(posX, posY, width, height, screenWidth, screenHeight, hitPoints);
-
-        try {
-            // Load texture image từ thư mục resources
-            URL imageUrl = getClass().getResource("/textures/YellowBrick.png");
-            if (imageUrl == null) {
-                System.err.println("⚠️ Không tìm thấy ảnh YellowBrick.png!");
-            } else {
-                texture = ImageIO.read(imageUrl);
-            }
-
-            texture = ImageIO.read(getClass().getResource("/textures/YellowBrick.png"));
-
-        } catch (IOException | IllegalArgumentException e) {
-            e.printStackTrace();
-            texture = null; // fallback nếu load lỗi
-        }
+        texture = TextureCache.get("/textures/YellowBrick.png");
     }
 
     @Override
@@ -1,16 +1,17 @@
 import java.util.ArrayList;
 import java.awt.image.BufferedImage;
-import javax.imageio.ImageIO;
-import java.io.IOException;
-import java.net.URL;
 import java.util.HashMap;
 
 public class Paddle extends MovableObject {
+    public static final String NORMAL_TEXTURE = "/textures/Paddle.png";
+    public static final String ENLARGED_TEXTURE = "/textures/Enlarged Paddle.png";
+
     protected double speed;
     protected double screenX;
     private BufferedImage texture;
     private BufferedImage normalTexture;
     private BufferedImage enlargedTexture;
+    private boolean enlarged = false;
 
     /**
      * @param posX    initial X position (top-left)
@@ -28,15 +29,9 @@ public class Paddle extends MovableObject {
         this.speed = speed;
         this.screenX = screenX;
 
-        try {
-            normalTexture = ImageIO.read(getClass().getResource("/textures/Paddle.png"));
-            enlargedTexture = ImageIO.read(getClass().getResource("/textures/Enlarged Paddle.png"));
-            texture = normalTexture; // mặc định là bóng thường
-
-        } catch (IOException | IllegalArgumentException e) {
-            e.printStackTrace();
-            texture = null; // fallback nếu load lỗi
-        }
+        normalTexture = TextureCache.get(NORMAL_TEXTURE);
+        enlargedTexture = TextureCache.get(ENLARGED_TEXTURE);
+        texture = normalTexture; // mặc định là bóng thường
     }
 
     public double getSpeed() {
@@ -82,10 +77,16 @@ public class Paddle extends MovableObject {
 
     public void enlarge() {
         this.texture = enlargedTexture;
+        this.enlarged = true;
     }
 
     public void minimize() {
         this.texture = normalTexture;
+        this.enlarged = false;
+    }
+
+    public boolean isEnlarged() {
+        return enlarged;
     }
 
     /**
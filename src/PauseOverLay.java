@@ -8,6 +8,7 @@ public class PauseOverLay extends JPanel {
     private final JButton restartButton;
     private final JButton saveButton;
     private final JButton backToMenuButton;
+    private final Toast toast = new Toast();
 
     public PauseOverLay(GamePanel gamePanel, GameEngine engine) {
         setOpaque(false);
@@ -59,37 +60,21 @@ public class PauseOverLay extends JPanel {
 
         // Resume game
         resumeButton.addActionListener((ActionEvent e) -> {
-            engine.togglePaused();
             gamePanel.hidePauseOverlay();
         });
 
         // Restart game
         restartButton.addActionListener((ActionEvent e) -> {
-            engine.restart();
+            gamePanel.getGameLoop().post(engine::restart);
             gamePanel.hidePauseOverlay();
         });
 
         // Save game
         saveButton.addActionListener((ActionEvent e) -> {
-            java.io.File dir = new java.io.File("saves");
-            if (!dir.exists()) dir.mkdirs();
-
-            boolean success = SaveManager.quickSave(engine);
-            if (success) {
-                JOptionPane.showMessageDialog(
-                        this,
-                        "Game saved successfully!",
-                        "Save",
-                        JOptionPane.INFORMATION_MESSAGE
-                );
-            } else {
-                JOptionPane.showMessageDialog(
-                        this,
-                        "Failed to save game!",
-                        "Error",
-                        JOptionPane.ERROR_MESSAGE
-                );
-            }
+            // Snapshot trên luồng GameLoop, ghi file ở luồng nền, báo kết quả bằng toast
+            gamePanel.getGameLoop().submit(() -> SaveManager.quickSaveAsync(engine))
+                    .thenCompose(saved -> saved)
+                    .thenAccept(success -> toast.show(success ? "Game saved successfully!" : "Failed to save game!"));
         });
 
         // Back to main menu
@@ -110,6 +95,7 @@ public class PauseOverLay extends JPanel {
         Graphics2D g2 = (Graphics2D) g.create();
         g2.setColor(new Color(0, 0, 0, 150)); // đen, alpha = 150/255
         g2.fillRect(0, 0, getWidth(), getHeight());
+        toast.draw(g2, getWidth(), getHeight());
         g2.dispose();
     }
 }
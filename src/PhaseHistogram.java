@@ -0,0 +1,88 @@
+import java.util.Arrays;
+
+/**
+ * PhaseHistogram: rolling histogram of durations (nanoseconds) for one profiled phase.
+ * <p>
+ * The last WINDOW samples are kept in a ring; each one is also counted in a log-scale bucket
+ * (4 buckets per power of two, so percentiles are within ~25%). record() is O(1) and
+ * allocation-free; percentiles walk the buckets, max scans the ring. Written by one thread,
+ * readable from another (e.g. simulation thread records, EDT draws the overlay).
+ */
+public class PhaseHistogram {
+    public static final int WINDOW = 512;
+    private static final int BUCKETS = 248;
+
+    private final String name;
+    private final long[] samples = new long[WINDOW];
+    private final int[] buckets = new int[BUCKETS];
+    private int count;
+    private int next;
+
+    public PhaseHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        if (count == WINDOW) {
+            buckets[bucketOf(samples[next])]--; // oldest sample leaves the window
+        } else {
+            count++;
+        }
+        samples[next] = nanos;
+        buckets[bucketOf(nanos)]++;
+        next = (next + 1) % WINDOW;
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+
+    /**
+     * Approximate percentile in nanoseconds (p in 0..1), 0 if there are no samples.
+     */
+    public synchronized long percentile(double p) {
+        if (count == 0) return 0;
+        int rank = (int) Math.ceil(p * count);
+        if (rank < 1) rank = 1;
+        int seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i];
+            if (seen >= rank) return middleOf(i);
+        }
+        return getMax();
+    }
+
+    /** Longest sample in the window, in nanoseconds (exact). */
+    public synchronized long getMax() {
+        long max = 0;
+        for (int i = 0; i < count; i++) max = Math.max(max, samples[i]);
+        return max;
+    }
+
+    public synchronized void reset() {
+        count = 0;
+        next = 0;
+        Arrays.fill(buckets, 0);
+    }
+
+    // 0..3 exact, then 4 sub-buckets per power of two
+    private static int bucketOf(long v) {
+        if (v < 4) return (int) v;
+        int log = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (log - 2)) & 3;
+        return (log - 1) * 4 + sub;
+    }
+
+    private static long middleOf(int bucket) {
+        if (bucket < 4) return bucket;
+        int log = bucket / 4 + 1;
+        long width = 1L << (log - 2);
+        long lower = (4L + bucket % 4) * width;
+        return lower + width / 2;
+    }
+}
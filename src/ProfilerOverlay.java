@@ -0,0 +1,118 @@
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.awt.*;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * ProfilerOverlay: the F3 debug overlay of GamePanel.
+ * <p>
+ * Shows p50 / p99 / max of every engine phase and paint layer (FrameProfiler), frame and
+ * tick pacing (FrameStats, plus the GameLoop tick rate and dropped steps), the JVM allocation
+ * rate and GC pauses, so stutters can be diagnosed on a player's machine without attaching a profiler.
+ * GC pauses come from the GarbageCollectorMXBean notifications and are recorded only after
+ * the overlay has been shown once.
+ */
+public class ProfilerOverlay {
+    private static final long ALLOC_SAMPLE_NANOS = 500_000_000L;
+
+    private final Font font = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private final Color background = new Color(0, 0, 0, 170);
+    private final PhaseHistogram gcPauses = new PhaseHistogram("gc pause");
+    private volatile long gcCount;
+    private boolean gcListening;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private long allocSampleNanos;
+    private long allocSampleBytes;
+    private double allocMbPerSecond;
+
+    /**
+     * Draw the overlay in the top-left corner.
+     */
+    public void draw(Graphics2D g, FrameProfiler engine, FrameProfiler paint, FrameStats frames, GameLoop loop) {
+        listenToGc();
+        sampleAllocation();
+
+        g.setFont(font);
+        FontMetrics fm = g.getFontMetrics();
+        int lineHeight = fm.getHeight();
+        int lines = engine.getPhaseCount() + paint.getPhaseCount() + 10;
+        int x = 8;
+        int y = 50;
+        g.setColor(background);
+        g.fillRect(x, y, fm.charWidth('0') * 44 + 12, lines * lineHeight + 8);
+
+        g.setColor(Color.GREEN);
+        y += lineHeight;
+        g.drawString(String.format("%-18s %7s %7s %7s", "engine tick (us)", "p50", "p99", "max"), x + 6, y);
+        y = drawPhases(g, engine, x + 6, y, lineHeight);
+        y += lineHeight;
+        g.drawString(String.format("%-18s %7s %7s %7s", "paint (us)", "p50", "p99", "max"), x + 6, y);
+        y = drawPhases(g, paint, x + 6, y, lineHeight);
+
+        y += lineHeight;
+        g.drawString("frames " + frames, x + 6, y += lineHeight);
+        g.drawString("ticks  " + loop.getTickStats(), x + 6, y += lineHeight);
+        g.drawString(String.format("       %d Hz, %d steps dropped", loop.getTickRate(), loop.getDroppedSteps()),
+                x + 6, y += lineHeight);
+        g.drawString(allocMbPerSecond >= 0 ? String.format("alloc  %.1f MB/s", allocMbPerSecond) : "alloc  n/a", x + 6, y += lineHeight);
+        g.drawString(String.format("gc     %d pauses, p99 %.1f ms, max %.1f ms", gcCount,
+                gcPauses.percentile(0.99) / 1e6, gcPauses.getMax() / 1e6), x + 6, y + lineHeight);
+    }
+
+    private static int drawPhases(Graphics2D g, FrameProfiler profiler, int x, int y, int lineHeight) {
+        for (int i = 0; i < profiler.getPhaseCount(); i++) {
+            y += lineHeight;
+            drawRow(g, profiler.getPhase(i), x, y);
+        }
+        y += lineHeight;
+        drawRow(g, profiler.getTotal(), x, y);
+        return y;
+    }
+
+    private static void drawRow(Graphics2D g, PhaseHistogram h, int x, int y) {
+        g.drawString(String.format("  %-16s %7.1f %7.1f %7.1f", h.getName(),
+                h.percentile(0.5) / 1e3, h.percentile(0.99) / 1e3, h.getMax() / 1e3), x, y);
+    }
+
+    /** Allocation rate of the whole JVM over the last ~0.5 s. */
+    private void sampleAllocation() {
+        long now = System.nanoTime();
+        if (now - allocSampleNanos < ALLOC_SAMPLE_NANOS) return;
+        long bytes;
+        try {
+            bytes = threads.getTotalThreadAllocatedBytes();
+        } catch (UnsupportedOperationException e) {
+            bytes = -1;
+        }
+        if (bytes < 0) {
+            allocMbPerSecond = -1;
+        } else if (allocSampleNanos != 0) {
+            allocMbPerSecond = (bytes - allocSampleBytes) / 1e6 / ((now - allocSampleNanos) / 1e9);
+        }
+        allocSampleNanos = now;
+        allocSampleBytes = bytes;
+    }
+
+    private void listenToGc() {
+        if (gcListening) return;
+        gcListening = true;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!(gc instanceof NotificationEmitter emitter)) continue;
+            emitter.addNotificationListener((notification, handback) -> {
+                if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                    return;
+                }
+                GarbageCollectionNotificationInfo info =
+                        GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                if (info.getGcAction().contains("cycle")) return; // concurrent work, not a pause
+                gcPauses.record(info.getGcInfo().getDuration() * 1_000_000L);
+                gcCount++;
+            }, null, null);
+        }
+    }
+}
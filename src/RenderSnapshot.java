@@ -0,0 +1,159 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * RenderSnapshot: everything GamePanel needs to draw one frame, copied from the GameEngine
+ * at the end of a simulation tick.
+ * <p>
+ * Instances are preallocated and reused by SnapshotBuffer; capture() only allocates when
+ * an array has to grow (more balls/buffs/bricks than ever before).
+ * Brick positions are read from the BrickField the snapshot points to: they never change
+ * during a level, only the live bits do, and those are copied here.
+ */
+public class RenderSnapshot {
+    // Positions come in pairs: prev* = previous tick, the other = this tick (for interpolation)
+
+    // Paddle
+    public double paddlePrevX, paddlePrevY;
+    public double paddleX, paddleY, paddleWidth, paddleHeight;
+    public boolean paddleEnlarged;
+
+    // Balls
+    public int ballCount;
+    public double[] ballPrevX = new double[8];
+    public double[] ballPrevY = new double[8];
+    public double[] ballX = new double[8];
+    public double[] ballY = new double[8];
+    public double[] ballSize = new double[8];
+    public boolean[] ballFire = new boolean[8];
+
+    // Buffs (type = Buff.BuffType ordinal)
+    public int buffCount;
+    public double[] buffPrevX = new double[16];
+    public double[] buffPrevY = new double[16];
+    public double[] buffX = new double[16];
+    public double[] buffY = new double[16];
+    public double[] buffWidth = new double[16];
+    public double[] buffHeight = new double[16];
+    public int[] buffType = new int[16];
+
+    // Bricks
+    public BrickField bricks;
+    public long[] brickLive = new long[64];
+
+    // HUD / state
+    public int score;
+    public int lives;
+    public int level;
+    public boolean gameOver;
+    public boolean gameWon;
+    public boolean paused;
+
+    /** Simulation tick that produced this snapshot (0 = nothing captured yet). */
+    public long tick;
+    /** nanoTime when the snapshot was captured, and the length of one tick. */
+    public long captureNanos;
+    public long tickNanos;
+
+    /**
+     * Copy the current engine state. Must run on the simulation thread.
+     */
+    public void capture(GameEngine engine, long tick, long tickNanos) {
+        this.tick = tick;
+        this.tickNanos = tickNanos;
+        this.captureNanos = System.nanoTime();
+
+        Paddle paddle = engine.getPaddle();
+        paddlePrevX = paddle.getPrevPosX();
+        paddlePrevY = paddle.getPrevPosY();
+        paddleX = paddle.getPosX();
+        paddleY = paddle.getPosY();
+        paddleWidth = paddle.getWidth();
+        paddleHeight = paddle.getHeight();
+        paddleEnlarged = paddle.isEnlarged();
+
+        ArrayList<Ball> balls = engine.getBalls();
+        ballCount = balls.size();
+        if (ballX.length < ballCount) {
+            int n = ballCount * 2;
+            ballPrevX = new double[n];
+            ballPrevY = new double[n];
+            ballX = new double[n];
+            ballY = new double[n];
+            ballSize = new double[n];
+            ballFire = new boolean[n];
+        }
+        for (int i = 0; i < ballCount; i++) {
+            Ball ball = balls.get(i);
+            ballPrevX[i] = ball.getPrevPosX();
+            ballPrevY[i] = ball.getPrevPosY();
+            ballX[i] = ball.getPosX();
+            ballY[i] = ball.getPosY();
+            ballSize[i] = ball.getWidth();
+            ballFire[i] = ball.getBuffs().containsKey(Buff.BuffType.Fire_Ball);
+        }
+
+        ArrayList<GameObject> buffs = engine.getBuffs();
+        if (buffX.length < buffs.size()) {
+            int n = buffs.size() * 2;
+            buffPrevX = new double[n];
+            buffPrevY = new double[n];
+            buffX = new double[n];
+            buffY = new double[n];
+            buffWidth = new double[n];
+            buffHeight = new double[n];
+            buffType = new int[n];
+        }
+        buffCount = 0;
+        for (int i = 0; i < buffs.size(); i++) {
+            if (buffs.get(i) instanceof Buff buff) {
+                buffPrevX[buffCount] = buff.getPrevPosX();
+                buffPrevY[buffCount] = buff.getPrevPosY();
+                buffX[buffCount] = buff.getPosX();
+                buffY[buffCount] = buff.getPosY();
+                buffWidth[buffCount] = buff.getWidth();
+                buffHeight[buffCount] = buff.getHeight();
+                buffType[buffCount] = buff.getBuffType().ordinal();
+                buffCount++;
+            }
+        }
+
+        bricks = engine.getBricks();
+        int words = bricks.liveWordCount();
+        if (brickLive.length < words) {
+            brickLive = new long[words * 2];
+        } else {
+            Arrays.fill(brickLive, words, brickLive.length, 0L);
+        }
+        bricks.copyLiveBits(brickLive);
+
+        score = engine.getScore();
+        lives = engine.getLives();
+        level = engine.getCurrentLevel();
+        gameOver = engine.isGameOver();
+        gameWon = engine.isGameWon();
+        paused = engine.isPaused();
+    }
+
+    /**
+     * How far the render time is between the previous tick (0) and this one (1).
+     * Rendering runs one tick behind the simulation so there is always a pair to blend.
+     */
+    public double alpha(long nowNanos) {
+        if (tickNanos <= 0) return 1.0;
+        double a = (nowNanos - captureNanos) / (double) tickNanos;
+        return Math.max(0.0, Math.min(1.0, a));
+    }
+
+    /** Linear blend of a previous and current coordinate. */
+    public static double lerp(double prev, double current, double alpha) {
+        return prev + (current - prev) * alpha;
+    }
+
+    /**
+     * Index of the next live brick at or after {@code from} in this snapshot, or -1.
+     */
+    public int nextLiveBrick(int from) {
+        return BrickField.nextSet(brickLive, from);
+    }
+}
@@ -0,0 +1,183 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * ReplayPlayer: feeds a file written by ReplayRecorder back through GameEngine.update.
+ * <p>
+ * begin(engine) restarts the engine on the recorded level and seed, then each step(engine)
+ * applies one recorded input frame and runs one tick. Keyframes are checked as they come:
+ * the first mismatch is reported once and kept in getDesyncTick().
+ * <p>
+ * Can also run headless, e.g. to compare two engine builds on the same recorded run:
+ * <pre>
+ * java ReplayPlayer replays/run.btr
+ * </pre>
+ */
+public class ReplayPlayer implements AutoCloseable {
+    private final Path file;
+    private DataInputStream in;
+
+    private int level;
+    private long seed;
+    private int tickRate;
+    private int screenWidth;
+    private int screenHeight;
+    private int keyframeInterval;
+
+    private int tick;
+    private int frame;
+    private int runLeft;
+    private boolean ended;
+    private int desyncTick = -1;
+
+    public ReplayPlayer(Path file) throws IOException {
+        this.file = file;
+        open();
+    }
+
+    private void open() throws IOException {
+        if (in != null) in.close();
+        in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+        if (in.readInt() != ReplayRecorder.MAGIC) {
+            in.close();
+            throw new IOException("Not a replay file: " + file);
+        }
+        short version = in.readShort();
+        if (version != ReplayRecorder.VERSION) {
+            in.close();
+            throw new IOException("Unsupported replay version " + version + ": " + file);
+        }
+        level = in.readInt();
+        seed = in.readLong();
+        tickRate = in.readInt();
+        screenWidth = in.readInt();
+        screenHeight = in.readInt();
+        keyframeInterval = in.readInt();
+        tick = 0;
+        runLeft = 0;
+        ended = false;
+        desyncTick = -1;
+    }
+
+    public int getLevel() { return level; }
+    public long getSeed() { return seed; }
+    public int getTickRate() { return tickRate; }
+    public int getScreenWidth() { return screenWidth; }
+    public int getScreenHeight() { return screenHeight; }
+    public int getTick() { return tick; }
+    public boolean isEnded() { return ended; }
+
+    /** First tick whose keyframe did not match, or -1 if the playback is still in sync. */
+    public int getDesyncTick() { return desyncTick; }
+
+    /** Engine sized like the recording and positioned at tick 0. */
+    public GameEngine newEngine() {
+        GameEngine engine = new GameEngine(screenWidth, screenHeight, seed);
+        begin(engine);
+        return engine;
+    }
+
+    /**
+     * Restart {@code engine} on the recorded level and seed (tick 0).
+     */
+    public void begin(GameEngine engine) {
+        if (engine.getScreenWidth() != screenWidth || engine.getScreenHeight() != screenHeight) {
+            System.err.println("Replay was recorded at " + screenWidth + "x" + screenHeight
+                    + ", engine is " + engine.getScreenWidth() + "x" + engine.getScreenHeight()
+                    + ": playback will not match");
+        }
+        engine.startSession(level, seed);
+    }
+
+    /**
+     * Play one tick. Returns false (and does nothing) once the recording has ended.
+     */
+    public boolean step(GameEngine engine) throws IOException {
+        if (ended) return false;
+        if (runLeft == 0 && !readRun()) return false;
+
+        GameInput.applyFrame(engine, frame);
+        engine.update(1.0 / tickRate);
+        tick++;
+        runLeft--;
+
+        if (tick % keyframeInterval == 0) {
+            checkKeyframe(engine);
+        }
+        return true;
+    }
+
+    /**
+     * Move to {@code target} by replaying from the start when needed (no rendering, so
+     * this runs far faster than real time).
+     */
+    public void seek(GameEngine engine, int target) throws IOException {
+        if (target < tick) {
+            open();
+            begin(engine);
+        }
+        while (tick < target && step(engine)) {
+            // fast-forward
+        }
+    }
+
+    private boolean readRun() throws IOException {
+        int tag = in.readUnsignedByte();
+        if (tag == ReplayRecorder.TAG_INPUT) {
+            frame = in.readUnsignedByte();
+            runLeft = ReplayRecorder.readVarInt(in);
+            return true;
+        }
+        if (tag == ReplayRecorder.TAG_END) {
+            ReplayRecorder.readVarInt(in); // total ticks
+            ended = true;
+            return false;
+        }
+        throw new IOException("Unexpected record " + tag + " at tick " + tick + " in " + file);
+    }
+
+    private void checkKeyframe(GameEngine engine) throws IOException {
+        // The recorder always ends the input run before a keyframe
+        int tag = in.readUnsignedByte();
+        if (tag != ReplayRecorder.TAG_KEYFRAME) {
+            throw new IOException("Missing keyframe at tick " + tick + " in " + file);
+        }
+        int keyTick = ReplayRecorder.readVarInt(in);
+        int checksum = in.readInt();
+        int score = in.readInt();
+        int lives = in.readInt();
+        if (desyncTick < 0 && (keyTick != tick || checksum != ReplayRecorder.checksum(engine))) {
+            desyncTick = tick;
+            System.err.println("Replay desync at tick " + tick + ": recorded score " + score + " lives " + lives
+                    + ", got score " + engine.getScore() + " lives " + engine.getLives());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /** Play a replay headless and print the result and the simulation time. */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java ReplayPlayer <replay file>");
+            return;
+        }
+        try (ReplayPlayer player = new ReplayPlayer(Paths.get(args[0]))) {
+            GameEngine engine = player.newEngine();
+            long start = System.nanoTime();
+            while (player.step(engine)) {
+                // run to the end
+            }
+            double ms = (System.nanoTime() - start) / 1e6;
+            System.out.println("Replay " + args[0] + ": " + player.getTick() + " ticks in " + ms + " ms"
+                    + ", score " + engine.getScore() + ", lives " + engine.getLives() + ", level " + engine.getCurrentLevel()
+                    + (player.getDesyncTick() >= 0 ? ", DESYNC at tick " + player.getDesyncTick() : ", in sync"));
+        }
+    }
+}
@@ -0,0 +1,151 @@
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * ReplayRecorder: writes the input of a session to a compact binary replay file.
+ * <p>
+ * A session is fully determined by its start level, the engine seed and the input frame
+ * (GameInput.FRAME_*) of every tick, so that is all the file stores:
+ * <pre>
+ * header:   int MAGIC, short VERSION, int level, long seed, int tickRate,
+ *           int screenWidth, int screenHeight, int keyframeInterval
+ * records:  TAG_INPUT    byte frame, varint run        (run ticks with the same frame)
+ *           TAG_KEYFRAME varint tick, int checksum, int score, int lives
+ *           TAG_END      varint totalTicks
+ * </pre>
+ * Every keyframeInterval ticks a keyframe with a checksum of the engine state is written,
+ * so ReplayPlayer can tell exactly where a playback stops matching the recording.
+ * Runs on the simulation thread (GameLoop); the stream is buffered, so a tick costs no I/O.
+ */
+public class ReplayRecorder implements AutoCloseable {
+    public static final int MAGIC = 0x42545250; // "BTRP"
+    public static final short VERSION = 1;
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 600;
+
+    static final int TAG_END = 0;
+    static final int TAG_INPUT = 1;
+    static final int TAG_KEYFRAME = 2;
+
+    private final Path file;
+    private final DataOutputStream out;
+    private final int keyframeInterval;
+    private int frame = -1;
+    private int run;
+    private int ticks;
+
+    /**
+     * Start a new session on the engine's current level (new seed) and record it to {@code file}.
+     */
+    public ReplayRecorder(Path file, GameEngine engine, int tickRate) throws IOException {
+        this(file, engine, tickRate, System.nanoTime(), DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    public ReplayRecorder(Path file, GameEngine engine, int tickRate, long seed, int keyframeInterval)
+            throws IOException {
+        if (keyframeInterval <= 0) throw new IllegalArgumentException("keyframeInterval must be > 0");
+        this.file = file;
+        this.keyframeInterval = keyframeInterval;
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        engine.startSession(engine.getCurrentLevel(), seed);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeInt(engine.getCurrentLevel());
+        out.writeLong(seed);
+        out.writeInt(tickRate);
+        out.writeInt(engine.getScreenWidth());
+        out.writeInt(engine.getScreenHeight());
+        out.writeInt(keyframeInterval);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Record one tick: {@code frame} is the input applied before engine.update, {@code engine}
+     * the state right after it.
+     */
+    public void tick(int frame, GameEngine engine) throws IOException {
+        if (frame != this.frame) {
+            flushRun();
+            this.frame = frame;
+        }
+        run++;
+        ticks++;
+        if (ticks % keyframeInterval == 0) {
+            flushRun();
+            out.writeByte(TAG_KEYFRAME);
+            writeVarInt(out, ticks);
+            out.writeInt(checksum(engine));
+            out.writeInt(engine.getScore());
+            out.writeInt(engine.getLives());
+        }
+    }
+
+    private void flushRun() throws IOException {
+        if (run == 0) return;
+        out.writeByte(TAG_INPUT);
+        out.writeByte(frame);
+        writeVarInt(out, run);
+        run = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushRun();
+        out.writeByte(TAG_END);
+        writeVarInt(out, ticks);
+        out.close();
+    }
+
+    /**
+     * Hash of the gameplay state (score, lives, level, paddle, balls, bricks, buffs).
+     * Bit-exact on positions: any divergence in the simulation shows up here.
+     */
+    public static int checksum(GameEngine engine) {
+        int h = engine.getScore();
+        h = 31 * h + engine.getLives();
+        h = 31 * h + engine.getCurrentLevel();
+        h = 31 * h + Double.hashCode(engine.getPaddle().getPosX());
+        for (int i = 0; i < engine.getBalls().size(); i++) {
+            Ball ball = engine.getBalls().get(i);
+            h = 31 * h + Double.hashCode(ball.getPosX());
+            h = 31 * h + Double.hashCode(ball.getPosY());
+            h = 31 * h + Double.hashCode(ball.getVelX());
+            h = 31 * h + Double.hashCode(ball.getVelY());
+        }
+        h = 31 * h + engine.getBricks().liveCount();
+        h = 31 * h + engine.getBuffs().size();
+        return h;
+    }
+
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint in replay");
+    }
+}
@@ -0,0 +1,326 @@
+import java.util.ArrayList;
+
+/**
+ * RewindBuffer: the last few seconds of the game as compact snapshots, for rewinding.
+ * <p>
+ * GameLoop calls tick() after every live step; every INTERVAL_MILLIS one snapshot is copied
+ * into preallocated primitive arrays (a ring of CAPACITY slots, oldest overwritten):
+ * score / lives, the paddle, each ball (motion, size, speed, damage, buff timers) and each
+ * falling buff. Bricks are delta-encoded: the ring keeps the hit points of every brick at
+ * the oldest snapshot (hitPoints 0 = destroyed, so this is also the liveness bitset), and
+ * each newer snapshot only stores the (brick, hitPoints) pairs that changed since the one
+ * before it, in a shared ring of ints. Recording a snapshot allocates nothing (the arrays
+ * only grow when a level has more bricks, balls or buffs than ever before).
+ * <p>
+ * restore(...) puts any buffered snapshot back into the engine: the base brick state plus
+ * the deltas up to it, then balls, paddle and buffs rebuilt from the stored values. The
+ * snapshots after it are dropped, so playing on records a new future.
+ * A new BrickField (new game, next level, loaded save) empties the buffer: the old snapshots
+ * describe other bricks. Simulation thread only.
+ */
+public class RewindBuffer {
+    public static final int INTERVAL_MILLIS = 100;
+    public static final int CAPACITY = 300; // 30 s
+
+    private static final int BRICK_POOL = 1 << 14; // ints: (brick, hitPoints) pairs
+    private static final Buff.BuffType[] BUFF_TYPES = Buff.BuffType.values();
+    // Ball: motion (Ball.MOTION_SIZE), width, height, speed, damage, launched, buff timers (NaN = none)
+    private static final int BALL_STRIDE = Ball.MOTION_SIZE + 5 + BUFF_TYPES.length;
+    // Falling buff: x, y, width, height, type
+    private static final int BUFF_STRIDE = 5;
+
+    private final int intervalTicks;
+    private int ticksUntilSnapshot;
+
+    // Ring of snapshots: slot (head + k) % CAPACITY is the k-th oldest
+    private int head;
+    private int count;
+
+    private final int[] score = new int[CAPACITY];
+    private final int[] lives = new int[CAPACITY];
+    private final double[] paddle = new double[CAPACITY * 4]; // x, y, width, velX
+    private final int[] ballCount = new int[CAPACITY];
+    private int ballSlots = 6;
+    private double[] balls = new double[CAPACITY * ballSlots * BALL_STRIDE];
+    private final int[] buffCount = new int[CAPACITY];
+    private int buffSlots = 16;
+    private double[] buffs = new double[CAPACITY * buffSlots * BUFF_STRIDE];
+    private final double[] motion = new double[Ball.MOTION_SIZE];
+
+    // Bricks: state at the oldest snapshot + per-snapshot deltas in a ring of ints
+    private BrickField field;
+    private int level;
+    private int[] baseHitPoints = new int[0];
+    private int[] recordedHitPoints = new int[0]; // state at the newest snapshot
+    private int[] changes = new int[0];           // scratch for one snapshot's delta
+    private final int[] pool = new int[BRICK_POOL];
+    private int poolEnd;  // next free int
+    private int poolUsed; // ints held by snapshots newer than the oldest
+    private final int[] deltaStart = new int[CAPACITY];
+    private final int[] deltaLength = new int[CAPACITY];
+
+    /**
+     * @param tickRate GameLoop ticks per second (a snapshot every INTERVAL_MILLIS of ticks)
+     */
+    public RewindBuffer(int tickRate) {
+        this.intervalTicks = Math.max(1, tickRate * INTERVAL_MILLIS / 1000);
+    }
+
+    /** Number of buffered snapshots. */
+    public int size() {
+        return count;
+    }
+
+    /** How far back the buffer reaches, in milliseconds. */
+    public long getBufferedMillis() {
+        return count > 0 ? (long) (count - 1) * INTERVAL_MILLIS : 0;
+    }
+
+    public void clear() {
+        head = 0;
+        count = 0;
+        poolEnd = 0;
+        poolUsed = 0;
+        ticksUntilSnapshot = 0;
+        field = null;
+    }
+
+    /**
+     * Called by GameLoop after each live step. Takes a snapshot every INTERVAL_MILLIS of
+     * play (paused / ended games are not recorded).
+     */
+    public void tick(GameEngine engine) {
+        if (engine.isPaused() || engine.isGameOver() || engine.isGameWon()) return;
+        if (--ticksUntilSnapshot > 0) return;
+        ticksUntilSnapshot = intervalTicks;
+        record(engine);
+    }
+
+    /** Copy the engine state into the next slot of the ring. No allocation. */
+    public void record(GameEngine engine) {
+        BrickField bricks = engine.getBricks();
+        if (bricks != field || engine.getCurrentLevel() != level) {
+            reset(bricks, engine.getCurrentLevel());
+        }
+
+        // Brick delta against the newest snapshot
+        int length = 0;
+        for (int i = 0; i < bricks.size(); i++) {
+            int hitPoints = bricks.getHitPoints(i);
+            if (hitPoints != recordedHitPoints[i]) {
+                changes[length++] = i;
+                changes[length++] = hitPoints;
+                recordedHitPoints[i] = hitPoints;
+            }
+        }
+        if (length > BRICK_POOL) {
+            // One step changed more than the pool holds: start over from this state
+            reset(bricks, level);
+            length = 0;
+        }
+        if (count == CAPACITY) dropOldest();
+        while (poolUsed + length > BRICK_POOL) dropOldest();
+
+        int slot = (head + count) % CAPACITY;
+        if (count == 0) {
+            System.arraycopy(recordedHitPoints, 0, baseHitPoints, 0, bricks.size());
+            length = 0; // the base already holds this snapshot
+        }
+        deltaStart[slot] = poolEnd;
+        deltaLength[slot] = length;
+        for (int j = 0; j < length; j++) {
+            pool[poolEnd] = changes[j];
+            poolEnd = (poolEnd + 1) % BRICK_POOL;
+        }
+        poolUsed += length;
+        count++;
+
+        score[slot] = engine.getScore();
+        lives[slot] = engine.getLives();
+        Paddle p = engine.getPaddle();
+        paddle[slot * 4] = p.getPosX();
+        paddle[slot * 4 + 1] = p.getPosY();
+        paddle[slot * 4 + 2] = p.getWidth();
+        paddle[slot * 4 + 3] = p.getVelX();
+
+        ArrayList<Ball> ballList = engine.getBalls();
+        if (ballList.size() > ballSlots) growBalls(ballList.size());
+        ballCount[slot] = ballList.size();
+        for (int b = 0; b < ballList.size(); b++) {
+            Ball ball = ballList.get(b);
+            int at = (slot * ballSlots + b) * BALL_STRIDE;
+            ball.saveMotion(motion);
+            System.arraycopy(motion, 0, balls, at, Ball.MOTION_SIZE);
+            at += Ball.MOTION_SIZE;
+            balls[at++] = ball.getWidth();
+            balls[at++] = ball.getHeight();
+            balls[at++] = ball.getSpeed();
+            balls[at++] = ball.getDamage();
+            balls[at++] = ball.isLaunched() ? 1 : 0;
+            for (Buff.BuffType type : BUFF_TYPES) {
+                Double timer = ball.getBuffs().get(type);
+                balls[at++] = timer != null ? timer : Double.NaN;
+            }
+        }
+
+        ArrayList<GameObject> buffList = engine.getBuffs();
+        int falling = 0;
+        for (int b = 0; b < buffList.size(); b++) {
+            if (buffList.get(b) instanceof Buff) falling++;
+        }
+        if (falling > buffSlots) growBuffs(falling);
+        buffCount[slot] = falling;
+        int at = slot * buffSlots * BUFF_STRIDE;
+        for (int b = 0; b < buffList.size(); b++) {
+            if (buffList.get(b) instanceof Buff buff) {
+                buffs[at++] = buff.getPosX();
+                buffs[at++] = buff.getPosY();
+                buffs[at++] = buff.getWidth();
+                buffs[at++] = buff.getHeight();
+                buffs[at++] = buff.getBuffType().ordinal();
+            }
+        }
+    }
+
+    /**
+     * Put the engine back to the snapshot about {@code millis} before the newest one (the
+     * oldest one if the buffer does not reach that far). Later snapshots are dropped.
+     *
+     * A game that has ended (game over / won) is not rewound: its score has been submitted.
+     *
+     * @return false if the game has ended or nothing is buffered for the engine's current bricks
+     */
+    public boolean restore(GameEngine engine, long millis) {
+        if (engine.isGameOver() || engine.isGameWon()) return false;
+        if (count == 0 || engine.getBricks() != field || engine.getCurrentLevel() != level) return false;
+        int back = (int) Math.min(count - 1, Math.max(0, (millis + INTERVAL_MILLIS / 2) / INTERVAL_MILLIS));
+        int keep = count - back;
+        int slot = (head + keep - 1) % CAPACITY;
+
+        // Bricks: base, then every delta up to the target
+        int size = field.size();
+        System.arraycopy(baseHitPoints, 0, recordedHitPoints, 0, size);
+        poolUsed = 0;
+        poolEnd = deltaStart[head];
+        for (int k = 1; k < keep; k++) {
+            int s = (head + k) % CAPACITY;
+            int start = deltaStart[s];
+            for (int j = 0; j < deltaLength[s]; j += 2) {
+                recordedHitPoints[pool[(start + j) % BRICK_POOL]] = pool[(start + j + 1) % BRICK_POOL];
+            }
+            poolUsed += deltaLength[s];
+            poolEnd = (start + deltaLength[s]) % BRICK_POOL;
+        }
+        for (int i = 0; i < size; i++) {
+            field.setHitPoints(i, recordedHitPoints[i]);
+        }
+        count = keep;
+        ticksUntilSnapshot = intervalTicks;
+
+        engine.setScore(score[slot]);
+        engine.setLives(lives[slot]);
+
+        int screenWidth = engine.getScreenWidth();
+        int screenHeight = engine.getScreenHeight();
+        ArrayList<Ball> ballList = new ArrayList<>(ballCount[slot]);
+        for (int b = 0; b < ballCount[slot]; b++) {
+            int at = (slot * ballSlots + b) * BALL_STRIDE;
+            System.arraycopy(balls, at, motion, 0, Ball.MOTION_SIZE);
+            at += Ball.MOTION_SIZE;
+            Ball ball = new Ball(motion[0], motion[1], balls[at], balls[at + 1], balls[at + 2],
+                    motion[4], motion[5], screenWidth, screenHeight);
+            ball.restoreMotion(motion);
+            ball.setDamage((int) balls[at + 3]);
+            ball.setLaunched(balls[at + 4] != 0);
+            at += 5;
+            for (Buff.BuffType type : BUFF_TYPES) {
+                double timer = balls[at++];
+                if (!Double.isNaN(timer)) ball.getBuffs().put(type, timer);
+            }
+            ball.savePreviousPosition();
+            ballList.add(ball);
+        }
+
+        Paddle p = engine.getPaddle();
+        p.setPosX(paddle[slot * 4]);
+        p.setPosY(paddle[slot * 4 + 1]);
+        p.setWidth(paddle[slot * 4 + 2]);
+        p.setVelX(paddle[slot * 4 + 3]);
+        if (!ballList.isEmpty() && ballList.getFirst().getBuffs().containsKey(Buff.BuffType.EnlargedPaddle_Ball)) {
+            p.enlarge();
+        } else {
+            p.minimize();
+        }
+        p.savePreviousPosition();
+
+        // Falling buffs move the way GameEngine.spawnBuff set them up
+        ArrayList<GameObject> buffList = new ArrayList<>(buffCount[slot]);
+        for (int b = 0; b < buffCount[slot]; b++) {
+            int at = (slot * buffSlots + b) * BUFF_STRIDE;
+            Buff buff = new Buff(buffs[at], buffs[at + 1], buffs[at + 2], buffs[at + 3],
+                    0.0, 150.0, 150.0, 0.0, 1.0, screenWidth, screenHeight, BUFF_TYPES[(int) buffs[at + 4]]);
+            buff.savePreviousPosition();
+            buffList.add(buff);
+        }
+
+        engine.setBalls(ballList);
+        engine.setBuffs(buffList);
+        engine.setBricks(field); // re-index the grid for the restored bricks
+        return true;
+    }
+
+    /** Start a new buffer for {@code bricks}: every old snapshot is about other bricks. */
+    private void reset(BrickField bricks, int level) {
+        head = 0;
+        count = 0;
+        poolEnd = 0;
+        poolUsed = 0;
+        field = bricks;
+        this.level = level;
+        int size = bricks.size();
+        if (recordedHitPoints.length < size) {
+            baseHitPoints = new int[size];
+            recordedHitPoints = new int[size];
+            changes = new int[size * 2];
+        }
+        for (int i = 0; i < size; i++) {
+            recordedHitPoints[i] = bricks.getHitPoints(i);
+        }
+    }
+
+    /** Fold the second-oldest snapshot's delta into the base and forget the oldest. */
+    private void dropOldest() {
+        if (count == 0) return;
+        int next = (head + 1) % CAPACITY;
+        if (count > 1) {
+            int start = deltaStart[next];
+            for (int j = 0; j < deltaLength[next]; j += 2) {
+                baseHitPoints[pool[(start + j) % BRICK_POOL]] = pool[(start + j + 1) % BRICK_POOL];
+            }
+            poolUsed -= deltaLength[next];
+            deltaLength[next] = 0;
+        }
+        head = next;
+        count--;
+    }
+
+    private void growBalls(int slots) {
+        balls = regrow(balls, ballSlots * BALL_STRIDE, slots * BALL_STRIDE);
+        ballSlots = slots;
+    }
+
+    private void growBuffs(int slots) {
+        slots = Math.max(slots, buffSlots * 2);
+        buffs = regrow(buffs, buffSlots * BUFF_STRIDE, slots * BUFF_STRIDE);
+        buffSlots = slots;
+    }
+
+    // Re-lay every ring slot out with a wider stride, keeping the recorded values
+    private static double[] regrow(double[] data, int oldStride, int newStride) {
+        double[] grown = new double[CAPACITY * newStride];
+        for (int slot = 0; slot < CAPACITY; slot++) {
+            System.arraycopy(data, slot * oldStride, grown, slot * newStride, oldStride);
+        }
+        return grown;
+    }
+}
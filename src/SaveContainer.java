@@ -0,0 +1,363 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * SaveContainer: every save slot (quick save + slots 1-9) in one memory-mapped file.
+ * <p>
+ * The file starts with a fixed index: for each slot the offset and length of its BinarySave
+ * data plus timestamp, level, score and a CRC32 of the data. The index is mapped with
+ * FileChannel.map, so listing slots or checking that one exists only reads those few hundred
+ * bytes, never a save; loading a slot reads just its data region. The index is the only
+ * mapping, and it stays mapped while the container is open.
+ * <p>
+ * Writes never overwrite live data: the new save goes after the last live region and is
+ * forced to disk first, then the slot's index entry is switched. Each slot has two entry
+ * copies with a sequence number and their own CRC; the newer valid copy wins, so a crash
+ * while updating an entry falls back to the previous save of that slot. Once dead regions
+ * outweigh the live data, compact() moves the live saves down in place, one at a time and
+ * the same way (copy, force, switch the entry), then truncates the file. A save is only
+ * moved into space no live save uses, so a crash during compaction loses nothing.
+ * Methods are synchronized: saves run on SaveWriter's thread, loads on the game loop,
+ * listing on the EDT.
+ */
+public class SaveContainer implements AutoCloseable {
+    public static final int QUICK_SAVE_SLOT = 0;
+    public static final int SLOT_COUNT = 10; // quick save + slots 1-9
+
+    private static final int MAGIC = 0x4254534C; // "BTSL"
+    private static final short VERSION = 1;
+    // Entry copy: seq, offset, length, timestamp, level, score, dataCrc, entryCrc
+    private static final int ENTRY_SIZE = 8 + 8 + 4 + 8 + 4 + 4 + 4 + 4;
+    private static final int INDEX_OFFSET = 4 + 2 + 2;
+    private static final int DATA_START = 1024;
+    private static final long COMPACT_MIN_BYTES = 64 * 1024;
+
+    /** What the index says about one slot (read without touching the save itself). */
+    public static final class SlotInfo {
+        public final int slot;
+        public final long timestamp;
+        public final int level;
+        public final int score;
+        public final int length;
+
+        SlotInfo(int slot, long timestamp, int level, int score, int length) {
+            this.slot = slot;
+            this.timestamp = timestamp;
+            this.level = level;
+            this.score = score;
+            this.length = length;
+        }
+    }
+
+    private final Path file;
+    private FileChannel channel;
+    private MappedByteBuffer index;
+    private long end; // end of the last live save; the next save goes here
+    private boolean truncateRefused; // not tried again while open
+
+    private SaveContainer(Path file) {
+        this.file = file;
+    }
+
+    /** Open {@code file}, creating an empty container if it does not exist yet. */
+    public static SaveContainer open(Path file) throws IOException {
+        SaveContainer container = new SaveContainer(file);
+        container.map();
+        return container;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /** True if {@code slot} holds a save (index only). */
+    public synchronized boolean exists(int slot) {
+        return entry(slot) >= 0;
+    }
+
+    /** Index entry of {@code slot}, or null if the slot is empty (index only). */
+    public synchronized SlotInfo info(int slot) {
+        int entry = entry(slot);
+        if (entry < 0) return null;
+        return new SlotInfo(slot, index.getLong(entry + 20), index.getInt(entry + 28),
+                index.getInt(entry + 32), index.getInt(entry + 16));
+    }
+
+    /** Every non-empty slot, in slot order (index only). */
+    public synchronized List<SlotInfo> list() {
+        List<SlotInfo> slots = new ArrayList<>();
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            SlotInfo info = info(slot);
+            if (info != null) slots.add(info);
+        }
+        return slots;
+    }
+
+    /**
+     * A copy of the save data of {@code slot}, checked against its CRC (a copy, since
+     * compaction may later move the data or reuse its space).
+     *
+     * @return the data, or null if the slot is empty
+     * @throws IOException if the data does not match its checksum
+     */
+    public synchronized ByteBuffer read(int slot) throws IOException {
+        checkOpen();
+        int entry = entry(slot);
+        if (entry < 0) return null;
+        long offset = index.getLong(entry + 8);
+        int length = index.getInt(entry + 16);
+        if (offset < DATA_START || offset + length > channel.size()) {
+            throw new IOException("Save slot " + slot + " points outside the container");
+        }
+        ByteBuffer data = readRegion(offset, length);
+        if (crc(data) != index.getInt(entry + 36)) {
+            throw new IOException("Save slot " + slot + " is corrupt (checksum mismatch)");
+        }
+        return data;
+    }
+
+    /**
+     * Store an encoded BinarySave (position to limit) in {@code slot}. Durable when this
+     * returns; the previous save of the slot stays valid until then.
+     */
+    public synchronized void write(int slot, ByteBuffer save) throws IOException {
+        checkSlot(slot);
+        checkOpen();
+        ByteBuffer data = save.slice();
+        int length = data.remaining();
+        int dataCrc = crc(data);
+
+        // Past every live save: anything there is dead (an older save, or a tail left by compact())
+        long offset = end;
+        writeRegion(data, offset);
+        channel.force(false);
+        end = offset + length;
+
+        setEntry(slot, offset, length, BinarySave.timestampOf(save), BinarySave.levelOf(save),
+                BinarySave.scoreOf(save), dataCrc);
+
+        if (end > COMPACT_MIN_BYTES && deadBytes() > liveBytes()) {
+            // The save is durable already: a failed compaction only leaves dead bytes behind
+            try {
+                compact();
+            } catch (IOException e) {
+                System.err.println("Could not compact save slots " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /** Empty {@code slot} (both entry copies). */
+    public synchronized void delete(int slot) throws IOException {
+        checkSlot(slot);
+        checkOpen();
+        for (int copy = 0; copy < 2; copy++) {
+            int entry = entryOffset(slot, copy);
+            for (int i = 0; i < ENTRY_SIZE; i++) index.put(entry + i, (byte) 0);
+        }
+        index.force();
+    }
+
+    /**
+     * Move the live saves down over the dead regions, in file order, then truncate the file.
+     * Each move is a write: copy, force, switch the slot's entry. A save whose new place
+     * would overlap its current one stays where it is (the gap before it is smaller than
+     * the save, so at most that much is left dead). Nothing is renamed or unmapped, so this
+     * also works where a mapped file cannot be replaced (Windows).
+     */
+    public synchronized void compact() throws IOException {
+        checkOpen();
+        long dst = DATA_START;
+        for (int slot : slotsByOffset()) {
+            int entry = entry(slot);
+            long src = index.getLong(entry + 8);
+            int length = index.getInt(entry + 16);
+            if (dst + length <= src) {
+                ByteBuffer data = readRegion(src, length);
+                if (crc(data) != index.getInt(entry + 36)) {
+                    // Leave a corrupt save alone (read() reports it); copying it would hide that
+                    dst = src + length;
+                    continue;
+                }
+                writeRegion(data.rewind(), dst);
+                channel.force(false);
+                setEntry(slot, dst, length, index.getLong(entry + 20), index.getInt(entry + 28),
+                        index.getInt(entry + 32), index.getInt(entry + 36));
+                dst += length;
+            } else {
+                dst = Math.max(dst, src + length);
+            }
+        }
+        end = dst;
+        if (truncateRefused) return;
+        try {
+            channel.truncate(end);
+        } catch (IOException e) {
+            // Some systems refuse to shrink a mapped file; the next saves reuse the tail instead
+            truncateRefused = true;
+            System.err.println("Could not truncate save slots " + file + ", reusing its tail: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        index = null;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void map() throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean fresh = channel.size() == 0;
+        if (fresh) {
+            ByteBuffer header = ByteBuffer.allocate(DATA_START);
+            header.putInt(MAGIC).putShort(VERSION).putShort((short) SLOT_COUNT).clear();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+        if (channel.size() < DATA_START) {
+            channel.close();
+            throw new IOException("Not a save container: " + file);
+        }
+        index = channel.map(FileChannel.MapMode.READ_WRITE, 0, DATA_START);
+        if (index.getInt(0) != MAGIC || index.getShort(4) != VERSION || index.getShort(6) != SLOT_COUNT) {
+            close();
+            throw new IOException("Not a save container (or another version): " + file);
+        }
+        end = DATA_START;
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            int entry = entry(slot);
+            if (entry >= 0) end = Math.max(end, index.getLong(entry + 8) + index.getInt(entry + 16));
+        }
+    }
+
+    /** Map the file again after close(). */
+    private void checkOpen() throws IOException {
+        if (index == null) map();
+    }
+
+    /**
+     * Overwrite the older entry copy of {@code slot} with a newer sequence number, then flush
+     * the index page.
+     */
+    private void setEntry(int slot, long offset, int length, long timestamp, int level, int score, int dataCrc) {
+        int a = entryOffset(slot, 0);
+        int b = entryOffset(slot, 1);
+        long seqA = valid(a) ? index.getLong(a) : -1;
+        long seqB = valid(b) ? index.getLong(b) : -1;
+        int target = seqA <= seqB ? a : b;
+        index.putLong(target, Math.max(0, Math.max(seqA, seqB)) + 1);
+        index.putLong(target + 8, offset);
+        index.putInt(target + 16, length);
+        index.putLong(target + 20, timestamp);
+        index.putInt(target + 28, level);
+        index.putInt(target + 32, score);
+        index.putInt(target + 36, dataCrc);
+        index.putInt(target + 40, entryCrc(target));
+        index.force();
+    }
+
+    /** Non-empty slots, by the offset of their data. */
+    private int[] slotsByOffset() {
+        int[] slots = new int[SLOT_COUNT];
+        int count = 0;
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            if (entry(slot) < 0) continue;
+            // Insertion sort: at most SLOT_COUNT slots
+            int i = count++;
+            while (i > 0 && dataOffset(slots[i - 1]) > dataOffset(slot)) {
+                slots[i] = slots[i - 1];
+                i--;
+            }
+            slots[i] = slot;
+        }
+        return Arrays.copyOf(slots, count);
+    }
+
+    private long dataOffset(int slot) {
+        return index.getLong(entry(slot) + 8);
+    }
+
+    private ByteBuffer readRegion(long offset, int length) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(length);
+        while (data.hasRemaining()) {
+            if (channel.read(data, offset + data.position()) < 0) {
+                throw new IOException("Save container " + file + " ends inside a save");
+            }
+        }
+        return data.flip();
+    }
+
+    private void writeRegion(ByteBuffer data, long offset) throws IOException {
+        int length = data.remaining();
+        while (data.hasRemaining()) {
+            channel.write(data, offset + (length - data.remaining()));
+        }
+    }
+
+    /** Offset of the newest valid entry copy of {@code slot}, -1 if the slot is empty. */
+    private int entry(int slot) {
+        checkSlot(slot);
+        int a = entryOffset(slot, 0);
+        int b = entryOffset(slot, 1);
+        boolean validA = valid(a);
+        boolean validB = valid(b);
+        if (validA && validB) return index.getLong(a) >= index.getLong(b) ? a : b;
+        if (validA) return a;
+        if (validB) return b;
+        return -1;
+    }
+
+    private boolean valid(int entry) {
+        return index.getLong(entry) > 0 && index.getInt(entry + 40) == entryCrc(entry);
+    }
+
+    private int entryCrc(int entry) {
+        CRC32 crc = new CRC32();
+        crc.update(index.slice(entry, ENTRY_SIZE - 4));
+        return (int) crc.getValue();
+    }
+
+    private static int crc(ByteBuffer data) {
+        CRC32 crc = new CRC32();
+        crc.update(data.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private long liveBytes() {
+        long live = 0;
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            int entry = entry(slot);
+            if (entry >= 0) live += index.getInt(entry + 16);
+        }
+        return live;
+    }
+
+    private long deadBytes() {
+        return end - DATA_START - liveBytes();
+    }
+
+    private static int entryOffset(int slot, int copy) {
+        return INDEX_OFFSET + (slot * 2 + copy) * ENTRY_SIZE;
+    }
+
+    private static void checkSlot(int slot) {
+        if (slot < 0 || slot >= SLOT_COUNT) {
+            throw new IllegalArgumentException("Invalid save slot: " + slot);
+        }
+    }
+}
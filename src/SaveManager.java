@@ -1,14 +1,38 @@
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * GameSaveManager handles saving and loading game state for BTLoop.
  * Separates save/load logic from GameEngine for better organization.
+ * <p>
+ * Two formats: XML (saveGame) and the compact BinarySave format. loadGame() reads either one,
+ * picked by the file header. Quick save and the numbered slots live in one SaveContainer
+ * (saves/slots.dat): existence checks and listing read its index only. Older per-slot files
+ * (quicksave.xml, slotN.sav / .xml) are still loaded while the container has no save there.
+ * <p>
+ * The *Async methods only encode the engine on the calling thread (the game loop) and leave
+ * the disk write to SaveWriter's background thread. Slot writes are crash-safe inside the
+ * container (see SaveContainer); other files go through a temp file and an atomic rename.
+ * <p>
+ * Every slot write also refreshes the slot's record in a SlotIndex (saves/slots.idx: level,
+ * score, lives, bricks, thumbnail), built on SaveWriter's thread after the save itself, so
+ * browseSlots() can show every slot without reading a save.
  */
 public class SaveManager {
 
     private static final String DEFAULT_SAVE_DIR = "saves/";
+    private static final String CONTAINER_FILE = DEFAULT_SAVE_DIR + "slots.dat";
+    private static final String INDEX_FILE = DEFAULT_SAVE_DIR + "slots.idx";
+    private static SaveContainer container;
+    private static final SlotIndex slotIndex = new SlotIndex(Paths.get(INDEX_FILE), SaveContainer.SLOT_COUNT);
 
     /**
      * Save the entire game state to an XML file.
@@ -67,6 +91,9 @@ public class SaveManager {
      * @return true if load was successful, false otherwise
      */
     public static boolean loadGame(String filePath, GameEngine engine, int screenWidth, int screenHeight) {
+        if (BinarySave.isBinary(Paths.get(filePath))) {
+            return loadGameBinary(filePath, engine, screenWidth, screenHeight);
+        }
         try {
             Document doc = XMLHandler.read(filePath);
             if (doc == null) {
@@ -97,12 +124,13 @@ public class SaveManager {
             engine.setBalls(balls);
 
             // Load bricks
-            ArrayList<Brick> bricks = loadBricks(root, screenWidth, screenHeight);
+            BrickField bricks = loadBricks(root);
             engine.setBricks(bricks);
 
             // Load power-ups
             ArrayList<GameObject> buffs = loadBuffs(root);
             engine.setBuffs(buffs);
+            engine.markNewGame();
 
             System.out.println("Game loaded from: " + filePath);
             return true;
@@ -114,18 +142,84 @@ public class SaveManager {
         }
     }
 
+    /**
+     * Save the entire game state in the binary format (BinarySave).
+     *
+     * @return true if save was successful, false otherwise
+     */
+    public static boolean saveGameBinary(String filePath, GameEngine engine) {
+        try {
+            BinarySave.write(Paths.get(filePath), engine);
+            System.out.println("Game saved to: " + filePath);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error saving game: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Snapshot the engine into a binary save now (cheap, must run on the game thread) and
+     * write it in the background.
+     *
+     * @return completes with true once the file is on disk, false if the write failed
+     */
+    public static CompletableFuture<Boolean> saveGameAsync(String filePath, GameEngine engine) {
+        ByteBuffer snapshot = BinarySave.encode(engine);
+        return SaveWriter.writeAsync(Paths.get(filePath), snapshot).handle((file, error) -> {
+            if (error != null) {
+                System.err.println("Error saving game: " + error.getMessage());
+                return false;
+            }
+            System.out.println("Game saved to: " + file);
+            return true;
+        });
+    }
+
+    private static boolean loadGameBinary(String filePath, GameEngine engine, int screenWidth, int screenHeight) {
+        try {
+            BinarySave.read(Paths.get(filePath), engine, screenWidth, screenHeight);
+            System.out.println("Game loaded from: " + filePath);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error loading game: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Convert an XML save to the binary format. The XML is loaded into a scratch engine of
+     * the given screen size and written back out with BinarySave.
+     */
+    public static boolean convertToBinary(String xmlPath, String binaryPath, int screenWidth, int screenHeight) {
+        GameEngine scratch = new GameEngine(screenWidth, screenHeight);
+        return loadGame(xmlPath, scratch, screenWidth, screenHeight) && saveGameBinary(binaryPath, scratch);
+    }
+
     /**
      * Quick save to default slot.
      */
     public static boolean quickSave(GameEngine engine) {
-        return saveGame(DEFAULT_SAVE_DIR + "quicksave.xml", engine);
+        return saveSlot(SaveContainer.QUICK_SAVE_SLOT, engine);
+    }
+
+    /**
+     * Quick save to default slot, written in the background (see saveGameAsync).
+     */
+    public static CompletableFuture<Boolean> quickSaveAsync(GameEngine engine) {
+        return saveSlotAsync(SaveContainer.QUICK_SAVE_SLOT, engine);
     }
 
     /**
      * Quick load from default slot.
      */
     public static boolean quickLoad(GameEngine engine, int screenWidth, int screenHeight) {
-        return loadGame(DEFAULT_SAVE_DIR + "quicksave.xml", engine, screenWidth, screenHeight);
+        return loadSlot(SaveContainer.QUICK_SAVE_SLOT, engine, screenWidth, screenHeight);
+    }
+
+    /** True if there is a quick save to continue from (container index, or an older file). */
+    public static boolean quickSaveExists() {
+        return slotExists(SaveContainer.QUICK_SAVE_SLOT);
     }
 
     /**
@@ -136,7 +230,18 @@ public class SaveManager {
             System.err.println("Invalid save slot: " + slot + ". Must be 1-9.");
             return false;
         }
-        return saveGame(DEFAULT_SAVE_DIR + "slot" + slot + ".xml", engine);
+        return saveSlot(slot, engine);
+    }
+
+    /**
+     * Save to a numbered slot (1-9), written in the background (see saveGameAsync).
+     */
+    public static CompletableFuture<Boolean> saveToSlotAsync(int slot, GameEngine engine) {
+        if (slot < 1 || slot > 9) {
+            System.err.println("Invalid save slot: " + slot + ". Must be 1-9.");
+            return CompletableFuture.completedFuture(false);
+        }
+        return saveSlotAsync(slot, engine);
     }
 
     /**
@@ -147,14 +252,143 @@ public class SaveManager {
             System.err.println("Invalid save slot: " + slot + ". Must be 1-9.");
             return false;
         }
-        return loadGame(DEFAULT_SAVE_DIR + "slot" + slot + ".xml", engine, screenWidth, screenHeight);
+        return loadSlot(slot, engine, screenWidth, screenHeight);
+    }
+
+    /** True if {@code slot} (0 = quick save) has a save; reads the container index only. */
+    public static boolean slotExists(int slot) {
+        SaveContainer slots = getContainer();
+        if (slots != null && slots.exists(slot)) return true;
+        return Files.isRegularFile(Paths.get(legacyPath(slot)));
+    }
+
+    /** Index entries of every used slot (0 = quick save), without reading any save. */
+    public static List<SaveContainer.SlotInfo> listSlots() {
+        SaveContainer slots = getContainer();
+        return slots != null ? slots.list() : new ArrayList<>();
+    }
+
+    /**
+     * What every slot holds, indexed by slot (0 = quick save), null for empty slots. Reads the
+     * container index and the SlotIndex only. A slot whose SlotIndex record is missing or
+     * older than its save has no thumbnail and lives / bricks of -1; an older per-slot file
+     * only has its modification time.
+     */
+    public static SlotIndex.Entry[] browseSlots() {
+        SlotIndex.Entry[] indexed = slotIndex.readAll();
+        SlotIndex.Entry[] slots = new SlotIndex.Entry[SaveContainer.SLOT_COUNT];
+        SaveContainer saves = getContainer();
+        for (int slot = 0; slot < slots.length; slot++) {
+            SaveContainer.SlotInfo info = saves != null ? saves.info(slot) : null;
+            if (info != null) {
+                SlotIndex.Entry entry = indexed[slot];
+                slots[slot] = entry != null && entry.timestamp == info.timestamp ? entry
+                        : new SlotIndex.Entry(slot, info.timestamp, info.level, info.score, -1, -1, null);
+                continue;
+            }
+            try {
+                Path legacy = Paths.get(legacyPath(slot));
+                if (Files.isRegularFile(legacy)) {
+                    slots[slot] = new SlotIndex.Entry(slot, Files.getLastModifiedTime(legacy).toMillis(),
+                            -1, -1, -1, -1, null);
+                }
+            } catch (IOException e) {
+                // unreadable file: shown as empty
+            }
+        }
+        return slots;
+    }
+
+    /** The shared slot container (saves/slots.dat), opened on first use; null if it cannot be. */
+    public static synchronized SaveContainer getContainer() {
+        if (container == null) {
+            try {
+                container = SaveContainer.open(Paths.get(CONTAINER_FILE));
+            } catch (IOException e) {
+                System.err.println("Could not open save slots " + CONTAINER_FILE + ": " + e.getMessage());
+            }
+        }
+        return container;
+    }
+
+    private static boolean saveSlot(int slot, GameEngine engine) {
+        SaveContainer slots = getContainer();
+        if (slots == null) return false;
+        try {
+            ByteBuffer snapshot = BinarySave.encode(engine);
+            slots.write(slot, snapshot);
+            updateIndex(slot, snapshot, engine);
+            System.out.println("Game saved to: " + slotName(slot));
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error saving game: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static CompletableFuture<Boolean> saveSlotAsync(int slot, GameEngine engine) {
+        SaveContainer slots = getContainer();
+        if (slots == null) return CompletableFuture.completedFuture(false);
+        ByteBuffer snapshot = BinarySave.encode(engine);
+        CompletableFuture<Void> written = SaveWriter.runAsync(() -> slots.write(slot, snapshot));
+        updateIndex(slot, snapshot, engine);
+        return written.handle((ignored, error) -> {
+            if (error != null) {
+                System.err.println("Error saving game: " + error.getMessage());
+                return false;
+            }
+            System.out.println("Game saved to: " + slotName(slot));
+            return true;
+        });
+    }
+
+    /**
+     * Queue the SlotIndex record of a save just written (or queued) to {@code slot}. It runs on
+     * SaveWriter's thread after the save; if the save failed, the record's timestamp will not
+     * match the container and browseSlots() ignores it.
+     */
+    private static void updateIndex(int slot, ByteBuffer snapshot, GameEngine engine) {
+        int screenWidth = engine.getScreenWidth();
+        int screenHeight = engine.getScreenHeight();
+        SaveWriter.runAsync(() -> slotIndex.update(slot, snapshot, screenWidth, screenHeight))
+                .exceptionally(error -> {
+                    System.err.println("Could not update slot index: " + error.getMessage());
+                    return null;
+                });
+    }
+
+    /** Decode the slot's data read from the container; older per-slot files as a fallback. */
+    private static boolean loadSlot(int slot, GameEngine engine, int screenWidth, int screenHeight) {
+        SaveContainer slots = getContainer();
+        if (slots == null || !slots.exists(slot)) {
+            return loadGame(legacyPath(slot), engine, screenWidth, screenHeight);
+        }
+        try {
+            BinarySave.decode(slots.read(slot), engine, screenWidth, screenHeight);
+            System.out.println("Game loaded from: " + slotName(slot));
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error loading game: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static String slotName(int slot) {
+        return slot == SaveContainer.QUICK_SAVE_SLOT ? "quick save" : "slot " + slot;
+    }
+
+    /** File used for {@code slot} before the container: .sav if there is one, else .xml. */
+    private static String legacyPath(int slot) {
+        String name = slot == SaveContainer.QUICK_SAVE_SLOT ? "quicksave" : "slot" + slot;
+        String binary = DEFAULT_SAVE_DIR + name + BinarySave.EXTENSION;
+        return Files.exists(Paths.get(binary)) ? binary : DEFAULT_SAVE_DIR + name + ".xml";
     }
 
     /**
      * Check if a save file exists.
      */
     public static boolean saveExists(String filePath) {
-        return XMLHandler.exists(filePath);
+        return Files.isRegularFile(Paths.get(filePath)); // no need to parse the save to know
     }
 
     /**
@@ -172,7 +406,7 @@ public class SaveManager {
         java.io.File saveDir = new java.io.File(DEFAULT_SAVE_DIR);
 
         if (saveDir.exists() && saveDir.isDirectory()) {
-            java.io.File[] files = saveDir.listFiles((dir, name) -> name.endsWith(".xml"));
+            java.io.File[] files = saveDir.listFiles((dir, name) -> name.endsWith(".xml") || name.endsWith(BinarySave.EXTENSION));
             if (files != null) {
                 for (java.io.File file : files) {
                     saves.add(file.getName());
@@ -183,6 +417,19 @@ public class SaveManager {
         return saves;
     }
 
+    /** Convert an XML save: java SaveManager <save.xml> <save.sav> [width height] */
+    public static void main(String[] args) {
+        if (args.length != 2 && args.length != 4) {
+            System.err.println("Usage: java SaveManager <save.xml> <save.sav> [width height]");
+            return;
+        }
+        int width = args.length == 4 ? Integer.parseInt(args[2]) : 800;
+        int height = args.length == 4 ? Integer.parseInt(args[3]) : 600;
+        if (!convertToBinary(args[0], args[1], width, height)) {
+            System.err.println("Conversion failed: " + args[0]);
+        }
+    }
+
     // ==================== PRIVATE HELPER METHODS ====================
 
     private static void saveGameStats(Document doc, Element root, GameEngine engine) {
@@ -261,29 +508,27 @@ public class SaveManager {
         return balls;
     }
 
-    private static void saveBricks(Document doc, Element root, ArrayList<Brick> bricks) {
+    private static void saveBricks(Document doc, Element root, BrickField bricks) {
         Element bricksEl = doc.createElement("Bricks");
 
-        for (Brick brick : bricks) {
-            // Only save bricks that are not destroyed
-            if (!brick.isDestroyed()) {
-                Map<String, String> brickAttrs = new HashMap<>();
-                brickAttrs.put("type", brick instanceof StrongBrick ? "strong" : "normal");
-                brickAttrs.put("posX", String.valueOf(brick.getPosX()));
-                brickAttrs.put("posY", String.valueOf(brick.getPosY()));
-                brickAttrs.put("width", String.valueOf(brick.getWidth()));
-                brickAttrs.put("height", String.valueOf(brick.getHeight()));
-                brickAttrs.put("hitPoints", String.valueOf(brick.getHitPoints()));
-                XMLHandler.addElementWithAttributes(doc, bricksEl, "Brick", brickAttrs);
-            }
+        // Only save bricks that are not destroyed
+        for (int i = bricks.nextLive(0); i >= 0; i = bricks.nextLive(i + 1)) {
+            Map<String, String> brickAttrs = new HashMap<>();
+            brickAttrs.put("type", bricks.getType(i).saveName());
+            brickAttrs.put("posX", String.valueOf(bricks.getPosX(i)));
+            brickAttrs.put("posY", String.valueOf(bricks.getPosY(i)));
+            brickAttrs.put("width", String.valueOf(bricks.getWidth(i)));
+            brickAttrs.put("height", String.valueOf(bricks.getHeight(i)));
+            brickAttrs.put("hitPoints", String.valueOf(bricks.getHitPoints(i)));
+            XMLHandler.addElementWithAttributes(doc, bricksEl, "Brick", brickAttrs);
         }
 
         root.appendChild(bricksEl);
     }
 
-    private static ArrayList<Brick> loadBricks(Element root, int screenWidth, int screenHeight) {
-        ArrayList<Brick> bricks = new ArrayList<>();
+    private static BrickField loadBricks(Element root) {
         List<Element> brickElements = XMLHandler.getElements(root, "Brick");
+        BrickField bricks = new BrickField(brickElements.size());
 
         for (Element brickEl : brickElements) {
             String type = XMLHandler.getAttribute(brickEl, "type", "normal");
@@ -292,14 +537,9 @@ public class SaveManager {
             double width = XMLHandler.getAttributeDouble(brickEl, "width", 60);
             double height = XMLHandler.getAttributeDouble(brickEl, "height", 20);
             int hitPoints = XMLHandler.getAttributeInt(brickEl, "hitPoints", 1);
+            if (hitPoints <= 0) continue;
 
-            Brick brick;
-            if (type.equals("strong")) {
-                brick = new StrongBrick(posX, posY, width, height, screenWidth, screenHeight, hitPoints);
-            } else {
-                brick = new NormalBrick(posX, posY, width, height, screenWidth, screenHeight, hitPoints);
-            }
-            bricks.add(brick);
+            bricks.add(posX, posY, width, height, hitPoints, BrickField.BrickType.fromSaveName(type));
         }
 
         return bricks;
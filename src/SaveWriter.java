@@ -0,0 +1,128 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * SaveWriter: crash-safe file writes for save files, optionally on a background thread.
+ * <p>
+ * The data goes to a temp file next to the target, is fsynced, and is then renamed over the
+ * target in one atomic move, so a crash or power loss leaves either the old save or the new
+ * one, never a half-written file. writeAsync() runs this on the "SaveWriter" thread (one
+ * write at a time, in submission order) so neither the EDT nor the game loop waits on the disk.
+ * runAsync() queues any other file work (e.g. journal appends) in that same order.
+ */
+public class SaveWriter {
+    /** File work run on the writer thread. */
+    public interface IoTask {
+        void run() throws IOException;
+    }
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "SaveWriter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private SaveWriter() {}
+
+    /**
+     * Write {@code data} to {@code target} on the writer thread.
+     *
+     * @return completes with the target once it is on disk, or exceptionally with the IOException
+     */
+    public static CompletableFuture<Path> writeAsync(Path target, ByteBuffer data) {
+        CompletableFuture<Path> done = new CompletableFuture<>();
+        runAsync(() -> writeAtomically(target, data)).whenComplete((ignored, error) -> {
+            if (error != null) {
+                done.completeExceptionally(error);
+            } else {
+                done.complete(target);
+            }
+        });
+        return done;
+    }
+
+    /**
+     * Run {@code task} on the writer thread, after every write queued before it.
+     *
+     * @return completes when the task is done, or exceptionally with its exception
+     */
+    public static CompletableFuture<Void> runAsync(IoTask task) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        writer.execute(() -> {
+            try {
+                task.run();
+                done.complete(null);
+            } catch (IOException | RuntimeException e) {
+                done.completeExceptionally(e);
+            }
+        });
+        return done;
+    }
+
+    /** Block until every write queued so far is done (e.g. before reading the files back). */
+    public static void awaitPending() {
+        runAsync(() -> { }).join();
+    }
+
+    /**
+     * Append {@code data} to the end of {@code file} (no fsync: appends are meant to be small
+     * and frequent; a torn last record is the reader's problem).
+     */
+    public static void append(Path file, ByteBuffer data) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        }
+    }
+
+    /**
+     * Write {@code data} (position to limit) to {@code target} through a temp file, fsync and
+     * atomic rename. Parent directories are created.
+     */
+    public static void writeAtomically(Path target, ByteBuffer data) throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        syncDirectory(dir);
+    }
+
+    // Make the rename itself durable; not every platform can open a directory, so best effort
+    private static void syncDirectory(Path dir) {
+        if (dir == null) return;
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // e.g. Windows: directories cannot be opened as channels
+        }
+    }
+}
@@ -0,0 +1,135 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.function.IntConsumer;
+
+/**
+ * SlotBrowserPanel: màn hình chọn save slot (quick save + slot 1-9).
+ * <p>
+ * Each slot is a card with its thumbnail, level, score, lives, bricks left and save time,
+ * all from SaveManager.browseSlots() (container index + SlotIndex), so opening the browser
+ * never reads a save, however many slots are full. Clicking a card calls onLoad with its slot.
+ */
+public class SlotBrowserPanel extends JPanel {
+    private static final Color BACKGROUND = new Color(24, 24, 36);
+    private static final Color CARD = new Color(48, 48, 80);
+    private static final Color CARD_HOVER = new Color(170, 130, 34);
+    private static final Color TEXT = new Color(225, 225, 234);
+
+    public SlotBrowserPanel(int width, int height, IntConsumer onLoad, Runnable onBack) {
+        setPreferredSize(new Dimension(width, height));
+        setBackground(BACKGROUND);
+        setLayout(new BorderLayout(0, 16));
+        setBorder(BorderFactory.createEmptyBorder(24, 24, 24, 24));
+
+        JLabel title = new JLabel("LOAD GAME", SwingConstants.CENTER);
+        title.setForeground(new Color(222, 196, 31));
+        title.setFont(new Font("Arial", Font.BOLD, 36));
+        add(title, BorderLayout.NORTH);
+
+        JPanel grid = new JPanel(new GridLayout(2, 5, 10, 10));
+        grid.setOpaque(false);
+        SlotIndex.Entry[] slots = SaveManager.browseSlots();
+        for (int slot = 0; slot < slots.length; slot++) {
+            grid.add(new SlotCard(slot, slots[slot], onLoad));
+        }
+        add(grid, BorderLayout.CENTER);
+
+        JButton backButton = new JButton("Back");
+        backButton.setFont(new Font("Arial", Font.BOLD, 20));
+        backButton.setFocusPainted(false);
+        backButton.addActionListener(e -> onBack.run());
+        JPanel south = new JPanel();
+        south.setOpaque(false);
+        south.add(backButton);
+        add(south, BorderLayout.SOUTH);
+    }
+
+    /**
+     * One slot: thumbnail and a few lines of text, painted directly (an HTML button label
+     * costs milliseconds to build per card).
+     */
+    private static final class SlotCard extends JComponent {
+        private static final Font NAME_FONT = new Font("Arial", Font.BOLD, 14);
+        private static final Font INFO_FONT = new Font("Arial", Font.PLAIN, 12);
+        private static final SimpleDateFormat TIME_FORMAT = new SimpleDateFormat("dd/MM HH:mm");
+
+        private final String name;
+        private final SlotIndex.Entry entry;
+        private final String[] lines;
+        private boolean hover;
+
+        SlotCard(int slot, SlotIndex.Entry entry, IntConsumer onLoad) {
+            this.name = slot == SaveContainer.QUICK_SAVE_SLOT ? "Quick Save" : "Slot " + slot;
+            this.entry = entry;
+            this.lines = entry == null ? new String[] {"empty"} : describe(entry);
+            if (entry == null) return;
+            setCursor(new Cursor(Cursor.HAND_CURSOR));
+            addMouseListener(new MouseAdapter() {
+                @Override
+                public void mouseEntered(MouseEvent e) {
+                    hover = true;
+                    repaint();
+                }
+
+                @Override
+                public void mouseExited(MouseEvent e) {
+                    hover = false;
+                    repaint();
+                }
+
+                @Override
+                public void mouseClicked(MouseEvent e) {
+                    onLoad.accept(slot);
+                }
+            });
+        }
+
+        private static String[] describe(SlotIndex.Entry entry) {
+            String stats = (entry.level > 0 ? "Level " + entry.level + " · " : "")
+                    + (entry.score >= 0 ? entry.score + " pts" : "");
+            String board = (entry.lives >= 0 ? "♥ " + entry.lives + " · " : "")
+                    + (entry.bricks >= 0 ? entry.bricks + " bricks" : "");
+            return new String[] {stats, board, TIME_FORMAT.format(new Date(entry.timestamp))};
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g.create();
+            try {
+                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+                g2.setColor(hover ? CARD_HOVER : CARD);
+                g2.fillRoundRect(0, 0, getWidth(), getHeight(), 14, 14);
+
+                int x = (getWidth() - SlotIndex.THUMB_WIDTH) / 2;
+                int y = 8;
+                if (entry != null && entry.thumbnail != null) {
+                    g2.drawImage(entry.thumbnail, x, y, null);
+                } else {
+                    g2.setColor(BACKGROUND);
+                    g2.fillRect(x, y, SlotIndex.THUMB_WIDTH, SlotIndex.THUMB_HEIGHT);
+                }
+                y += SlotIndex.THUMB_HEIGHT + 4;
+
+                g2.setColor(entry != null ? TEXT : Color.GRAY);
+                y = drawCentered(g2, NAME_FONT, name, y);
+                for (String line : lines) {
+                    if (!line.isEmpty()) y = drawCentered(g2, INFO_FONT, line, y);
+                }
+            } finally {
+                g2.dispose();
+            }
+        }
+
+        private int drawCentered(Graphics2D g2, Font font, String text, int top) {
+            g2.setFont(font);
+            FontMetrics fm = g2.getFontMetrics();
+            g2.drawString(text, (getWidth() - fm.stringWidth(text)) / 2, top + fm.getAscent());
+            return top + fm.getHeight();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferUShort;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * SlotIndex: what each save slot holds, for the slot browser, without opening any save.
+ * <p>
+ * One small file (saves/slots.idx) with a fixed-size record per slot: timestamp, level,
+ * score, lives, bricks left and a THUMB_WIDTH x THUMB_HEIGHT thumbnail of the playfield as
+ * raw RGB565 pixels, plus a CRC32. update() builds a record from an encoded BinarySave (the
+ * thumbnail is drawn there, so call it off the EDT and the game loop: SaveManager runs it on
+ * SaveWriter's thread) and overwrites just that record. readAll() is a single read of the
+ * file; the thumbnails are copied straight into images, no decoding.
+ * A record torn by a crash fails its CRC and reads as missing; the timestamp lets callers
+ * tell a record that no longer matches the slot's save.
+ */
+public class SlotIndex {
+    public static final int THUMB_WIDTH = 128;
+    public static final int THUMB_HEIGHT = 96;
+
+    private static final int MAGIC = 0x42545349; // "BTSI"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 2 + 2;
+    // timestamp, level, score, lives, bricks, thumbnail, crc
+    private static final int THUMB_BYTES = THUMB_WIDTH * THUMB_HEIGHT * 2;
+    private static final int RECORD_SIZE = 8 + 4 + 4 + 4 + 4 + THUMB_BYTES + 4;
+    private static final Color EMPTY_BACKGROUND = new Color(24, 24, 36);
+
+    /** One slot as recorded in the index. */
+    public static final class Entry {
+        public final int slot;
+        public final long timestamp;
+        public final int level;
+        public final int score;
+        public final int lives;  // -1 if unknown
+        public final int bricks; // -1 if unknown
+        public final BufferedImage thumbnail; // null if none
+
+        Entry(int slot, long timestamp, int level, int score, int lives, int bricks, BufferedImage thumbnail) {
+            this.slot = slot;
+            this.timestamp = timestamp;
+            this.level = level;
+            this.score = score;
+            this.lives = lives;
+            this.bricks = bricks;
+            this.thumbnail = thumbnail;
+        }
+    }
+
+    private final Path file;
+    private final int slotCount;
+
+    public SlotIndex(Path file, int slotCount) {
+        this.file = file;
+        this.slotCount = slotCount;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Record {@code save} (an encoded BinarySave, position to limit) as the content of
+     * {@code slot}. Draws the thumbnail; the playfield is screenWidth x screenHeight.
+     */
+    public synchronized void update(int slot, ByteBuffer save, int screenWidth, int screenHeight) throws IOException {
+        checkSlot(slot);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.putLong(BinarySave.timestampOf(save));
+        record.putInt(BinarySave.levelOf(save));
+        record.putInt(BinarySave.scoreOf(save));
+        record.putInt(BinarySave.livesOf(save));
+        record.putInt(BinarySave.brickCountOf(save));
+        BufferedImage thumbnail = drawThumbnail(save, screenWidth, screenHeight);
+        record.asShortBuffer().put(((DataBufferUShort) thumbnail.getRaster().getDataBuffer()).getData());
+        record.position(RECORD_SIZE - 4);
+        record.putInt(crc(record, 0));
+        write(slot, record.flip());
+    }
+
+    /** Forget what {@code slot} holds. */
+    public synchronized void clear(int slot) throws IOException {
+        checkSlot(slot);
+        write(slot, ByteBuffer.allocate(RECORD_SIZE));
+    }
+
+    /**
+     * Every slot's record, indexed by slot; null where there is none (or it is torn).
+     * An index that is missing or unreadable reads as empty.
+     */
+    public synchronized Entry[] readAll() {
+        Entry[] entries = new Entry[slotCount];
+        if (!Files.isRegularFile(file)) return entries;
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            data = ByteBuffer.allocate((int) Math.min(channel.size(), HEADER_SIZE + (long) slotCount * RECORD_SIZE));
+            while (data.hasRemaining() && channel.read(data) >= 0) {
+                // keep reading until the buffer is full or EOF
+            }
+            data.flip();
+        } catch (IOException e) {
+            System.err.println("Could not read slot index " + file + ": " + e.getMessage());
+            return entries;
+        }
+        if (data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC || data.getShort(4) != VERSION) {
+            return entries;
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            int at = HEADER_SIZE + slot * RECORD_SIZE;
+            if (at + RECORD_SIZE > data.limit()) break;
+            long timestamp = data.getLong(at);
+            if (timestamp == 0 || data.getInt(at + RECORD_SIZE - 4) != crc(data, at)) continue;
+            BufferedImage thumbnail = new BufferedImage(THUMB_WIDTH, THUMB_HEIGHT, BufferedImage.TYPE_USHORT_565_RGB);
+            data.slice(at + 24, THUMB_BYTES).asShortBuffer()
+                    .get(((DataBufferUShort) thumbnail.getRaster().getDataBuffer()).getData());
+            entries[slot] = new Entry(slot, timestamp, data.getInt(at + 8), data.getInt(at + 12),
+                    data.getInt(at + 16), data.getInt(at + 20), thumbnail);
+        }
+        return entries;
+    }
+
+    private void write(int slot, ByteBuffer record) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            if (header.position() < HEADER_SIZE || header.getInt(0) != MAGIC || header.getShort(4) != VERSION) {
+                // New (or foreign) file: start an empty index
+                channel.truncate(0);
+                header.clear();
+                header.putInt(MAGIC).putShort(VERSION).putShort((short) slotCount).flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+            }
+            long offset = HEADER_SIZE + (long) slot * RECORD_SIZE;
+            while (record.hasRemaining()) {
+                channel.write(record, offset + record.position());
+            }
+            channel.force(false);
+        }
+    }
+
+    /** Downscaled playfield of an encoded save: background texture, then BinarySave.drawPlayfield. */
+    private static BufferedImage drawThumbnail(ByteBuffer save, int screenWidth, int screenHeight) throws IOException {
+        BufferedImage thumbnail = new BufferedImage(THUMB_WIDTH, THUMB_HEIGHT, BufferedImage.TYPE_USHORT_565_RGB);
+        Graphics2D g = thumbnail.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            Image background = TextureCache.get(GamePanel.BACKGROUND_TEXTURE);
+            if (background != null) {
+                g.drawImage(background, 0, 0, THUMB_WIDTH, THUMB_HEIGHT, null);
+            } else {
+                g.setColor(EMPTY_BACKGROUND);
+                g.fillRect(0, 0, THUMB_WIDTH, THUMB_HEIGHT);
+            }
+            g.transform(AffineTransform.getScaleInstance(
+                    THUMB_WIDTH / (double) Math.max(1, screenWidth), THUMB_HEIGHT / (double) Math.max(1, screenHeight)));
+            BinarySave.drawPlayfield(save, g);
+        } finally {
+            g.dispose();
+        }
+        return thumbnail;
+    }
+
+    private static int crc(ByteBuffer data, int record) {
+        CRC32 crc = new CRC32();
+        crc.update(data.slice(record, RECORD_SIZE - 4));
+        return (int) crc.getValue();
+    }
+
+    private void checkSlot(int slot) {
+        if (slot < 0 || slot >= slotCount) {
+            throw new IllegalArgumentException("Invalid save slot: " + slot);
+        }
+    }
+}
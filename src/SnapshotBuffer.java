@@ -0,0 +1,37 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SnapshotBuffer: lock-free triple buffer of RenderSnapshots.
+ * <p>
+ * The simulation thread always owns one "back" snapshot it writes into, the render thread
+ * owns one "front" snapshot it reads from, and the third sits in the middle slot.
+ * publish() swaps back with middle, latest() swaps middle with front if the middle is newer.
+ * Neither side ever waits for the other, and the reader always sees a complete snapshot.
+ */
+public class SnapshotBuffer {
+    private static final int INDEX_MASK = 0b011;
+    private static final int FRESH = 0b100; // middle holds a snapshot the reader has not taken yet
+
+    private final RenderSnapshot[] snapshots = {new RenderSnapshot(), new RenderSnapshot(), new RenderSnapshot()};
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;  // only touched by the writer
+    private int front = 2; // only touched by the reader
+
+    /** Snapshot the writer should fill next. Writer thread only. */
+    public RenderSnapshot back() {
+        return snapshots[back];
+    }
+
+    /** Hand the filled back snapshot to the reader. Writer thread only. */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /** Most recently published snapshot. Reader thread only. */
+    public RenderSnapshot latest() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return snapshots[front];
+    }
+}
@@ -0,0 +1,94 @@
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SoundBank: sound effects decoded once into memory.
+ * <p>
+ * Every effect is converted to the mixer format (FORMAT: 44.1 kHz, 16-bit, stereo)
+ * and kept as interleaved short samples, so playing it again never touches the disk.
+ */
+public class SoundBank {
+    public static final float SAMPLE_RATE = 44100f;
+    public static final int CHANNELS = 2;
+    public static final AudioFormat FORMAT = new AudioFormat(SAMPLE_RATE, 16, CHANNELS, true, false);
+
+    // Marks a file that failed to load, so we do not retry (and re-log) on every hit
+    private static final short[] MISSING = new short[0];
+
+    private static final ConcurrentHashMap<String, short[]> samples = new ConcurrentHashMap<>();
+
+    private SoundBank() {}
+
+    /**
+     * Get the decoded samples of a sound file, loading it on first use.
+     *
+     * @return interleaved stereo samples, or null if the file could not be loaded
+     */
+    public static short[] get(String filePath) {
+        short[] data = samples.computeIfAbsent(filePath, SoundBank::load);
+        return data == MISSING ? null : data;
+    }
+
+    /** Decode a sound ahead of time (e.g. while a level loads). */
+    public static void preload(String filePath) {
+        get(filePath);
+    }
+
+    private static short[] load(String filePath) {
+        File soundFile = new File(filePath);
+        if (!soundFile.exists()) {
+            System.err.println("Sound file not found: " + filePath);
+            return MISSING;
+        }
+        try (AudioInputStream source = AudioSystem.getAudioInputStream(soundFile)) {
+            AudioFormat src = source.getFormat();
+            // 16-bit signed little-endian, keeping the source rate/channels (always supported)
+            AudioFormat pcm = new AudioFormat(src.getSampleRate(), 16, src.getChannels(), true, false);
+            try (AudioInputStream decoded = AudioSystem.getAudioInputStream(pcm, source)) {
+                short[] raw = toShorts(decoded.readAllBytes());
+                return toMixerFormat(raw, pcm.getChannels(), pcm.getSampleRate());
+            }
+        } catch (UnsupportedAudioFileException | IOException | IllegalArgumentException e) {
+            System.err.println("Could not decode sound " + filePath + ": " + e.getMessage());
+            return MISSING;
+        }
+    }
+
+    private static short[] toShorts(byte[] bytes) {
+        short[] out = new short[bytes.length / 2];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = (short) ((bytes[2 * i] & 0xFF) | (bytes[2 * i + 1] << 8));
+        }
+        return out;
+    }
+
+    /**
+     * Map channels to stereo and resample (linear) to SAMPLE_RATE.
+     */
+    private static short[] toMixerFormat(short[] raw, int channels, float rate) {
+        int frames = raw.length / channels;
+        if (channels == CHANNELS && rate == SAMPLE_RATE) {
+            return raw;
+        }
+        double step = rate / SAMPLE_RATE;
+        int outFrames = (int) (frames / step);
+        short[] out = new short[outFrames * CHANNELS];
+        for (int f = 0; f < outFrames; f++) {
+            double pos = f * step;
+            int i0 = Math.min((int) pos, frames - 1);
+            int i1 = Math.min(i0 + 1, frames - 1);
+            double frac = pos - i0;
+            for (int c = 0; c < CHANNELS; c++) {
+                int sc = Math.min(c, channels - 1); // mono -> both sides
+                double s = raw[i0 * channels + sc] * (1.0 - frac) + raw[i1 * channels + sc] * frac;
+                out[f * CHANNELS + c] = (short) Math.round(s);
+            }
+        }
+        return out;
+    }
+}
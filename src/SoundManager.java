@@ -42,39 +42,17 @@ public class SoundManager {
         }
     }
 
+    /**
+     * Phát hiệu ứng âm thanh. Âm thanh được decode một lần (SoundBank) và trộn
+     * trên một luồng duy nhất (SoundMixer), không tạo Thread/Clip mới mỗi lần.
+     */
     public static void playSoundEffect(String filePath) {
-        new Thread(() -> {
-            try {
-                File soundFile = new File(filePath);
-                if (!soundFile.exists()) {
-                    System.err.println("Sound file not found: " + filePath);
-                    return;
-                }
-
-                AudioInputStream audioStream = AudioSystem.getAudioInputStream(soundFile);
-                Clip clip = AudioSystem.getClip();
-                clip.open(audioStream);
-                FloatControl gainControl = (FloatControl) clip.getControl(FloatControl.Type.MASTER_GAIN);
-                float volumeBoost = 6.0f; // Tăng âm lượng thêm 6dB (khoảng gấp đôi)
-                float newGain = Math.min(gainControl.getMaximum(), gainControl.getValue() + volumeBoost);
-                gainControl.setValue(newGain);
-                clip.start(); // phát 1 lần
-
-                // Giải phóng tài nguyên sau khi phát xong
-                clip.addLineListener(event -> {
-                    if (event.getType() == LineEvent.Type.STOP) {
-                        clip.close();
-                    }
-                });
-
-            } catch (UnsupportedAudioFileException | IOException | LineUnavailableException e) {
-                e.printStackTrace();
-            }
-        }).start();
+        SoundMixer.play(SoundBank.get(filePath));
     }
 
     // Giải phóng tài nguyên khi thoát game
     public static void close() {
+        SoundMixer.shutdown();
         if (backgroundClip != null) {
             backgroundClip.stop();
             backgroundClip.close();
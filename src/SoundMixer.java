@@ -0,0 +1,178 @@
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * SoundMixer: one background thread that mixes sound effects into a single SourceDataLine.
+ * <p>
+ * Callers only enqueue a SoundBank sample array; the mixer thread picks it up, mixes up to
+ * MAX_VOICES voices in software and writes the result to the line.
+ * The same effect queued again within one GameLoop tick of the voice already playing it
+ * (e.g. a fire ball destroying a whole row) is coalesced into that voice. When all voices
+ * are busy the oldest one is replaced.
+ * <p>
+ * Each mixer thread owns its own queue and voices: after shutdown() the next play() starts
+ * a fresh mixer, once the old thread has released the line.
+ */
+public class SoundMixer {
+    private static final int MAX_VOICES = 8;
+    private static final int CHUNK_FRAMES = 512;
+    // Một tick của GameLoop (-Dbtloop.tickRate), tính theo lúc enqueue
+    private static final long COALESCE_NANOS = TimeUnit.SECONDS.toNanos(1) / GameLoop.DEFAULT_TICK_RATE;
+    private static final float EFFECT_GAIN = 2.0f; // ~ +6 dB, như MASTER_GAIN boost cũ
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final long SHUTDOWN_JOIN_MILLIS = 1000;
+
+    private static volatile SoundMixer mixer;
+    private static volatile boolean unavailable;
+
+    private record Pending(short[] sound, long queuedNanos) {}
+
+    private final ConcurrentLinkedQueue<Pending> pending = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    // Voice state, only touched by this mixer's thread
+    private final short[][] voiceData = new short[MAX_VOICES][];
+    private final int[] voicePos = new int[MAX_VOICES];
+    private final long[] voiceQueuedNanos = new long[MAX_VOICES];
+
+    private SoundMixer() {
+        thread = new Thread(this::run, "SoundMixer");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Queue a decoded effect for playback. Never blocks (except right after shutdown(),
+     * while the old mixer thread is being joined).
+     */
+    public static void play(short[] sound) {
+        if (sound == null || sound.length == 0 || unavailable) return;
+        SoundMixer m = mixer;
+        if (m == null) {
+            m = ensureStarted();
+            if (m == null) return;
+        }
+        m.pending.offer(new Pending(sound, System.nanoTime()));
+        LockSupport.unpark(m.thread);
+    }
+
+    private static synchronized SoundMixer ensureStarted() {
+        if (mixer == null && !unavailable) {
+            SoundMixer m = new SoundMixer();
+            mixer = m;
+            m.thread.start();
+        }
+        return mixer;
+    }
+
+    /** Stop the mixer thread and wait for it to release the audio line. */
+    public static synchronized void shutdown() {
+        SoundMixer m = mixer;
+        if (m == null) return;
+        mixer = null;
+        m.running = false;
+        LockSupport.unpark(m.thread);
+        try {
+            m.thread.join(SHUTDOWN_JOIN_MILLIS); // line.write blocks for at most ~4 chunks
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        SourceDataLine line;
+        try {
+            line = AudioSystem.getSourceDataLine(SoundBank.FORMAT);
+            // ~4 chunks of buffering: low latency but no underruns while mixing
+            line.open(SoundBank.FORMAT, CHUNK_FRAMES * 4 * SoundBank.FORMAT.getFrameSize());
+            line.start();
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+            System.err.println("Sound effects disabled: " + e.getMessage());
+            unavailable = true;
+            running = false;
+            pending.clear();
+            return;
+        }
+
+        int[] mix = new int[CHUNK_FRAMES * SoundBank.CHANNELS];
+        byte[] out = new byte[mix.length * 2];
+        try {
+            while (running) {
+                int active = takePending();
+                if (active == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    continue;
+                }
+                mixChunk(mix);
+                for (int i = 0; i < mix.length; i++) {
+                    int s = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mix[i]));
+                    out[2 * i] = (byte) s;
+                    out[2 * i + 1] = (byte) (s >> 8);
+                }
+                line.write(out, 0, out.length); // blocks while the line is full
+            }
+        } finally {
+            line.stop();
+            line.close();
+        }
+    }
+
+    /**
+     * Move queued effects into voices. Returns the number of active voices.
+     */
+    private int takePending() {
+        Pending p;
+        while ((p = pending.poll()) != null) {
+            startVoice(p.sound(), p.queuedNanos());
+        }
+        int active = 0;
+        for (int v = 0; v < MAX_VOICES; v++) {
+            if (voiceData[v] != null) active++;
+        }
+        return active;
+    }
+
+    private void startVoice(short[] sound, long queuedNanos) {
+        int free = -1;
+        int oldest = 0;
+        for (int v = 0; v < MAX_VOICES; v++) {
+            if (voiceData[v] == null) {
+                if (free < 0) free = v;
+                continue;
+            }
+            if (voiceData[v] == sound && queuedNanos - voiceQueuedNanos[v] < COALESCE_NANOS) {
+                return; // same effect queued within one tick: coalesce
+            }
+            if (voicePos[v] > voicePos[oldest] || voiceData[oldest] == null) oldest = v;
+        }
+        int v = free >= 0 ? free : oldest;
+        voiceData[v] = sound;
+        voicePos[v] = 0;
+        voiceQueuedNanos[v] = queuedNanos;
+    }
+
+    private void mixChunk(int[] mix) {
+        Arrays.fill(mix, 0);
+        for (int v = 0; v < MAX_VOICES; v++) {
+            short[] data = voiceData[v];
+            if (data == null) continue;
+            int pos = voicePos[v];
+            int n = Math.min(mix.length, data.length - pos);
+            for (int i = 0; i < n; i++) {
+                mix[i] += (int) (data[pos + i] * EFFECT_GAIN);
+            }
+            pos += n;
+            if (pos >= data.length) {
+                voiceData[v] = null;
+                voicePos[v] = 0;
+            } else {
+                voicePos[v] = pos;
+            }
+        }
+    }
+}
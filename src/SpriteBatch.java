@@ -0,0 +1,50 @@
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * SpriteBatch: collects the atlas sprites of one layer and draws them page by page.
+ * <p>
+ * add() only records (sprite, x, y); flush() then issues every draw from one atlas page
+ * before moving to the next, so the pipeline keeps the same source image bound instead of
+ * switching textures between a ball, a buff and the paddle. Sprites of the same page keep
+ * the order they were added in. The arrays grow when needed and are reused every frame.
+ * Render path only.
+ */
+public class SpriteBatch {
+    private TextureAtlas.Sprite[] sprites = new TextureAtlas.Sprite[32];
+    private int[] xs = new int[32];
+    private int[] ys = new int[32];
+    private int count;
+
+    public void add(TextureAtlas.Sprite sprite, int x, int y) {
+        if (sprite == null) return;
+        if (count == sprites.length) {
+            int n = count * 2;
+            sprites = Arrays.copyOf(sprites, n);
+            xs = Arrays.copyOf(xs, n);
+            ys = Arrays.copyOf(ys, n);
+        }
+        sprites[count] = sprite;
+        xs[count] = x;
+        ys[count] = y;
+        count++;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /** Draw everything added since the last flush, grouped by atlas page, and clear the batch. */
+    public void flush(Graphics2D g, TextureAtlas atlas) {
+        int pages = atlas.getPageCount();
+        for (int page = 0; page < pages && count > 0; page++) {
+            for (int i = 0; i < count; i++) {
+                if (sprites[i].page == page) {
+                    atlas.draw(g, sprites[i], xs[i], ys[i]);
+                }
+            }
+        }
+        Arrays.fill(sprites, 0, count, null);
+        count = 0;
+    }
+}
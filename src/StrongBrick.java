@@ -1,8 +1,5 @@
 import java.util.ArrayList;
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
-import java.net.URL;
 
 public class StrongBrick extends Brick {
     private BufferedImage texture;
@@ -18,23 +15,7 @@ public class StrongBrick extends Brick {
      */
     public StrongBrick(double posX, double posY, double width, double height, int screenWidth, int screenHeight, int hitPoints) {
         super(posX, posY, width, height, screenWidth, screenHeight, hitPoints);
-
-
-        try {
-            // Load texture image từ thư mục resources
-            URL imageUrl = getClass().getResource("/textures/BlueBrick.png");
-            if (imageUrl == null) {
-                System.err.println("⚠️ Không tìm thấy ảnh BlueBrick.png!");
-            } else {
-                texture = ImageIO.read(imageUrl);
-            }
-
-            texture = ImageIO.read(getClass().getResource("/textures/BlueBrick.png"));
-
-        } catch (IOException | IllegalArgumentException e) {
-            e.printStackTrace();
-            texture = null; // fallback nếu load lỗi
-        }
+        texture = TextureCache.get("/textures/BlueBrick.png");
     }
 
     @Override
@@ -0,0 +1,211 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * TextureAtlas: game sprites packed into a few large page images, at the sizes they are drawn at.
+ * <p>
+ * Each (texture path, width, height) is scaled once and packed onto a PAGE_SIZE page (shelf
+ * packing, 1 px gap). Drawing a sprite is then an unscaled sub-region blit from a page,
+ * instead of scaling a separate BufferedImage on every drawImage. Sizes that were not
+ * packed up front (e.g. an enlarged ball) are added the first time they are asked for.
+ * Pages are compatible with the screen when a GraphicsConfiguration is given; when the panel
+ * moves to another display a new atlas is built for it.
+ * Full-screen images (the background) do not go on a page: getImage() keeps them as separate
+ * compatible images at the last size asked for.
+ * Not thread-safe: used from the render path only.
+ */
+public class TextureAtlas {
+    public static final int PAGE_SIZE = 1024;
+    private static final int GAP = 1;
+
+    /** Where one sprite lives: page index and rectangle in that page. */
+    public static final class Sprite {
+        public final int page;
+        public final int x;
+        public final int y;
+        public final int width;
+        public final int height;
+
+        Sprite(int page, int x, int y, int width, int height) {
+            this.page = page;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    // Marks a texture that could not be loaded, so the lookup does not retry every frame
+    private static final Sprite MISSING = new Sprite(-1, 0, 0, 0, 0);
+
+    private final GraphicsConfiguration config;
+    private final ArrayList<BufferedImage> pages = new ArrayList<>();
+    private final HashMap<String, Sprite[]> sprites = new HashMap<>();
+    private int spriteCount;
+    private final HashMap<String, BufferedImage> images = new HashMap<>();
+
+    // Page small sprites are packed on (-1 = none yet) and the cursor on it
+    private int packPage = -1;
+    private int shelfX;
+    private int shelfY;
+    private int shelfHeight;
+
+    /**
+     * @param config screen configuration for compatible pages (null = plain ARGB pages)
+     */
+    public TextureAtlas(GraphicsConfiguration config) {
+        this.config = config;
+    }
+
+    /** Atlas for the default screen (plain ARGB pages when headless). */
+    public static TextureAtlas forDefaultScreen() {
+        GraphicsConfiguration config = null;
+        if (!GraphicsEnvironment.isHeadless()) {
+            config = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration();
+        }
+        return new TextureAtlas(config);
+    }
+
+    /**
+     * The sprite of {@code path} at width x height, packing it on first use.
+     *
+     * @return the sprite, or null if the texture could not be loaded
+     */
+    public Sprite get(String path, int width, int height) {
+        if (path == null || width <= 0 || height <= 0) return null;
+        Sprite[] sizes = sprites.get(path);
+        if (sizes != null) {
+            for (Sprite sprite : sizes) {
+                if (sprite.width == width && sprite.height == height) {
+                    return sprite == MISSING ? null : sprite;
+                }
+                if (sprite == MISSING) return null;
+            }
+        }
+        Sprite sprite = pack(path, width, height);
+        Sprite[] grown = sizes == null ? new Sprite[1] : Arrays.copyOf(sizes, sizes.length + 1);
+        grown[grown.length - 1] = sprite;
+        sprites.put(path, grown);
+        return sprite == MISSING ? null : sprite;
+    }
+
+    /**
+     * The whole texture {@code path} scaled to width x height as its own compatible image
+     * (opaque if the texture has no alpha). Only the last size per path is kept, so a resize
+     * rescales once and then every frame is an unscaled blit.
+     *
+     * @return the image, or null if the texture could not be loaded
+     */
+    public BufferedImage getImage(String path, int width, int height) {
+        if (path == null || width <= 0 || height <= 0) return null;
+        BufferedImage image = images.get(path);
+        if (image != null && image.getWidth() == width && image.getHeight() == height) {
+            return image;
+        }
+        BufferedImage texture = TextureCache.get(path);
+        if (texture == null) return null;
+        image = createImage(width, height, texture.getColorModel().hasAlpha()
+                ? Transparency.TRANSLUCENT : Transparency.OPAQUE);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(texture, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        images.put(path, image);
+        return image;
+    }
+
+    /** Screen configuration the pages are compatible with (null = plain ARGB). */
+    public GraphicsConfiguration getConfiguration() {
+        return config;
+    }
+
+    /** Draw {@code sprite} with its top-left corner at (x, y). */
+    public void draw(Graphics2D g, Sprite sprite, int x, int y) {
+        g.drawImage(pages.get(sprite.page),
+                x, y, x + sprite.width, y + sprite.height,
+                sprite.x, sprite.y, sprite.x + sprite.width, sprite.y + sprite.height,
+                null);
+    }
+
+    /** Draw texture {@code path} at (x, y) scaled to width x height (via its sprite). */
+    public void draw(Graphics2D g, String path, int x, int y, int width, int height) {
+        Sprite sprite = get(path, width, height);
+        if (sprite != null) {
+            draw(g, sprite, x, y);
+        }
+    }
+
+    public int getPageCount() {
+        return pages.size();
+    }
+
+    public BufferedImage getPage(int page) {
+        return pages.get(page);
+    }
+
+    /** Number of packed sprites (all sizes of all textures). */
+    public int getSpriteCount() {
+        return spriteCount;
+    }
+
+    private Sprite pack(String path, int width, int height) {
+        BufferedImage texture = TextureCache.get(path);
+        if (texture == null) return MISSING;
+
+        int page;
+        int x;
+        int y;
+        if (width > PAGE_SIZE || height > PAGE_SIZE) {
+            // Too big to share a page: gets one of its own
+            page = newPage(width, height);
+            x = 0;
+            y = 0;
+        } else {
+            if (packPage >= 0 && shelfX + width > PAGE_SIZE) { // next shelf
+                shelfY += shelfHeight + GAP;
+                shelfX = 0;
+                shelfHeight = 0;
+            }
+            if (packPage < 0 || shelfY + height > PAGE_SIZE) {
+                packPage = newPage(PAGE_SIZE, PAGE_SIZE);
+                shelfX = 0;
+                shelfY = 0;
+                shelfHeight = 0;
+            }
+            page = packPage;
+            x = shelfX;
+            y = shelfY;
+            shelfX += width + GAP;
+            shelfHeight = Math.max(shelfHeight, height);
+        }
+
+        Graphics2D g = pages.get(page).createGraphics();
+        try {
+            g.drawImage(texture, x, y, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        spriteCount++;
+        return new Sprite(page, x, y, width, height);
+    }
+
+    private int newPage(int width, int height) {
+        pages.add(createImage(width, height, Transparency.TRANSLUCENT));
+        return pages.size() - 1;
+    }
+
+    private BufferedImage createImage(int width, int height, int transparency) {
+        if (config != null) {
+            return config.createCompatibleImage(width, height, transparency);
+        }
+        return new BufferedImage(width, height, transparency == Transparency.OPAQUE
+                ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+    }
+}
@@ -0,0 +1,89 @@
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TextureCache: central registry for game textures.
+ * <p>
+ * Each texture under src/ (e.g. "textures/Ball.png") is decoded once and the same
+ * BufferedImage is handed to every object that asks for it, so spawning balls or
+ * loading a level no longer decodes PNGs per instance.
+ * Returned images are shared: callers must only draw them, never draw into them.
+ */
+public class TextureCache {
+    // Marks a path that failed to load, so we do not retry (and re-log) every time
+    private static final BufferedImage MISSING = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+
+    private static final ConcurrentHashMap<String, BufferedImage> textures = new ConcurrentHashMap<>();
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+
+    private TextureCache() {}
+
+    /**
+     * Get a texture by classpath path ("textures/Ball.png" or "/textures/Ball.png").
+     *
+     * @return the shared image, or null if it could not be loaded
+     */
+    public static BufferedImage get(String path) {
+        // Looked up by the path as given, so per-frame calls do not build a new key String
+        BufferedImage image = textures.get(path);
+        if (image != null) {
+            hits.incrementAndGet();
+        } else {
+            String key = path.startsWith("/") ? path.substring(1) : path;
+            image = textures.computeIfAbsent(key, TextureCache::load);
+            textures.putIfAbsent(path, image);
+        }
+        return image == MISSING ? null : image;
+    }
+
+    private static BufferedImage load(String key) {
+        misses.incrementAndGet();
+        URL url = TextureCache.class.getClassLoader().getResource(key);
+        if (url == null) {
+            System.err.println("Không tìm thấy ảnh " + key + "!");
+            return MISSING;
+        }
+        try {
+            BufferedImage image = ImageIO.read(url);
+            return image != null ? image : MISSING;
+        } catch (IOException e) {
+            System.err.println("Không thể load texture: " + key);
+            return MISSING;
+        }
+    }
+
+    /** Number of lookups served from the cache. */
+    public static long getHits() {
+        return hits.get();
+    }
+
+    /** Number of lookups that had to decode (or failed to find) the file. */
+    public static long getMisses() {
+        return misses.get();
+    }
+
+    /** Number of distinct textures held. */
+    public static int size() {
+        Set<BufferedImage> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        distinct.addAll(textures.values());
+        distinct.remove(MISSING);
+        return distinct.size();
+    }
+
+    public static String stats() {
+        return "TextureCache: " + size() + " textures, " + getHits() + " hits, " + getMisses() + " misses";
+    }
+
+    /** Drop every cached image (e.g. after textures change on disk). */
+    public static void clear() {
+        textures.clear();
+    }
+}
@@ -0,0 +1,50 @@
+import java.awt.*;
+
+/**
+ * Toast: a short message drawn at the bottom of the screen for a couple of seconds, used
+ * for save / load results instead of a blocking dialog.
+ * show() may be called from any thread; draw() from the thread painting the panel.
+ */
+public class Toast {
+    private static final long DURATION_NANOS = 2_000_000_000L;
+    private static final long FADE_NANOS = 300_000_000L;
+    private static final Font FONT = new Font("Arial", Font.BOLD, 16);
+    private static final Color BACKGROUND = new Color(0, 0, 0, 190);
+
+    private volatile String message;
+    private volatile long shownAt;
+
+    public void show(String message) {
+        this.shownAt = System.nanoTime();
+        this.message = message;
+    }
+
+    public void draw(Graphics2D g, int width, int height) {
+        String text = message;
+        if (text == null) return;
+        long age = System.nanoTime() - shownAt;
+        if (age >= DURATION_NANOS) {
+            message = null;
+            return;
+        }
+        float opacity = Math.min(1f, (DURATION_NANOS - age) / (float) FADE_NANOS);
+
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, opacity));
+            g2.setFont(FONT);
+            FontMetrics fm = g2.getFontMetrics();
+            int boxWidth = fm.stringWidth(text) + 32;
+            int boxHeight = fm.getHeight() + 16;
+            int x = (width - boxWidth) / 2;
+            int y = height - boxHeight - 60;
+            g2.setColor(BACKGROUND);
+            g2.fillRoundRect(x, y, boxWidth, boxHeight, 14, 14);
+            g2.setColor(Color.WHITE);
+            g2.drawString(text, x + 16, y + 8 + fm.getAscent());
+        } finally {
+            g2.dispose();
+        }
+    }
+}
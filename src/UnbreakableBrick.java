@@ -1,8 +1,5 @@
 import java.util.ArrayList;
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
-import java.net.URL;
 
 /**
  * Unbreakable brick: a brick that cannot be destroyed (represented by very large HP).
@@ -23,22 +20,7 @@ public class UnbreakableBrick extends Brick {
      */
     public UnbreakableBrick(double posX, double posY, double width, double height, int screenWidth, int screenHeight, int hitPoints) {
         super(posX, posY, width, height, screenWidth, screenHeight, hitPoints);
-
-        try {
-            // Load texture image từ thư mục resources
-            URL imageUrl = getClass().getResource("/textures/RedBrick.png");
-            if (imageUrl == null) {
-                System.err.println("⚠️ Không tìm thấy ảnh RedBrick.png!");
-            } else {
-                texture = ImageIO.read(imageUrl);
-            }
-
-            texture = ImageIO.read(getClass().getResource("/textures/RedBrick.png"));
-
-        } catch (IOException | IllegalArgumentException e) {
-            e.printStackTrace();
-            texture = null; // fallback nếu load lỗi
-        }
+        texture = TextureCache.get("/textures/RedBrick.png");
     }
 
     @Override
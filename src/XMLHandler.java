@@ -13,8 +13,10 @@ import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -57,9 +59,10 @@ public class XMLHandler {
             transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
             transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "4");
 
-            DOMSource source = new DOMSource(doc);
-            StreamResult result = new StreamResult(new File(filePath));
-            transformer.transform(source, result);
+            // Transform in memory, then temp file + fsync + rename: no half-written file on a crash
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            transformer.transform(new DOMSource(doc), new StreamResult(bytes));
+            SaveWriter.writeAtomically(path, ByteBuffer.wrap(bytes.toByteArray()));
             return true;
         } catch (Exception e) {
             System.err.println("Error writting to:  " + filePath + e.getMessage());